@@ -0,0 +1,54 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.MainApplication;
+import com.example.demo.StarshipController;
+import com.example.demo.models.Response;
+import com.example.demo.stub.SwapiStubServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StarshipController#getStarshipInformation()} on the real application context,
+ * with its SWAPI searches answered over HTTP by an in-process stub with no added latency.
+ * The search cache is off, so every invocation makes the starship and person round trips,
+ * while the homeworld is answered from the entity store after the first invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InformationEndToEndBenchmark {
+    private SwapiStubServer stub;
+    private ConfigurableApplicationContext context;
+    private StarshipController starshipController;
+
+    @Setup
+    public void setup() {
+        this.stub = new SwapiStubServer(Duration.ZERO);
+        this.context = new SpringApplicationBuilder(MainApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--swapi.api.url=" + stub.getUrl(),
+                        "--swapi.cache.enabled=false",
+                        "--logging.level.root=WARN");
+        this.starshipController = context.getBean(StarshipController.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<Response> getStarshipInformation() {
+        return starshipController.getStarshipInformation();
+    }
+}
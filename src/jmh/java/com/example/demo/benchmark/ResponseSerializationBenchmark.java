@@ -0,0 +1,67 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.InformationFormat;
+import com.example.demo.models.Response;
+import com.example.demo.models.Starship;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the /information {@link Response}, with a starship and with the empty starship
+ * written by {@link com.example.demo.models.EmptyStarshipSerializer}, in every {@link InformationFormat},
+ * and the decoding a consumer does of each. The payload sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+    @Param({"JSON", "CBOR", "SMILE"})
+    private InformationFormat format;
+
+    private final Response response = Response.builder()
+            .starship(Starship.builder().name("Death Star").model("DS-1 Orbital Battle Station")
+                    .starshipClass("Deep Space Mobile Battlestation").build())
+            .crew("342,953")
+            .isLeiaOnPlanet("true")
+            .build();
+    private final Response emptyStarship = Response.builder().build();
+    private ObjectMapper objectMapper;
+    private byte[] encodedStarship;
+    private byte[] encodedEmptyStarship;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = format.mapper(new ObjectMapper());
+        encodedStarship = objectMapper.writeValueAsBytes(response);
+        encodedEmptyStarship = objectMapper.writeValueAsBytes(emptyStarship);
+        System.out.printf("%n%s payload: %d bytes with a starship, %d bytes with the empty starship%n",
+                format, encodedStarship.length, encodedEmptyStarship.length);
+    }
+
+    @Benchmark
+    public byte[] starship() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] emptyStarship() throws IOException {
+        return objectMapper.writeValueAsBytes(emptyStarship);
+    }
+
+    @Benchmark
+    public JsonNode decodeStarship() throws IOException {
+        return objectMapper.readTree(encodedStarship);
+    }
+
+    @Benchmark
+    public JsonNode decodeEmptyStarship() throws IOException {
+        return objectMapper.readTree(encodedEmptyStarship);
+    }
+}
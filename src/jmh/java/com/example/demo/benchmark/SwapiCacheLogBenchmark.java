@@ -0,0 +1,70 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.client.SwapiCacheLog;
+import com.example.demo.config.SwapiProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the {@link SwapiCacheLog}: reading back and compacting a log of cached searches, each holding a real
+ * SWAPI starship search page, as a restarted service does before it reports ready.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwapiCacheLogBenchmark {
+    @Param({"1000", "10000"})
+    private int searches;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SwapiProperties swapiProperties = new SwapiProperties();
+    private Path directory;
+
+    @Setup
+    public void setup() throws IOException {
+        String page;
+        try (InputStream in = getClass().getResourceAsStream("/swapi/starships-search.json")) {
+            page = objectMapper.readTree(in).toString();
+        }
+        directory = Files.createTempDirectory("swapi-cache-log");
+        Path file = directory.resolve("swapi-cache.log");
+        long fetchedAt = System.currentTimeMillis();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < searches; i++) {
+                out.write("{\"route\":\"starships\",\"url\":\"https://swapi.dev/api/starships/?search=Star " + i
+                        + "\",\"maxResults\":2147483647,\"fetchedAt\":" + fetchedAt + ",\"eTag\":\"\\\"" + i
+                        + "\\\"\",\"lastModified\":null,\"page\":" + page + "}");
+                out.newLine();
+            }
+        }
+        swapiProperties.getCache().getPersistence().setEnabled(true);
+        swapiProperties.getCache().getPersistence().setFile(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(swapiProperties.getCache().getPersistence().getFile());
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int restore() throws Exception {
+        SwapiCacheLog cacheLog = new SwapiCacheLog(objectMapper, swapiProperties, new SimpleMeterRegistry());
+        cacheLog.init();
+        int restored = cacheLog.restore().size();
+        cacheLog.close();
+        return restored;
+    }
+}
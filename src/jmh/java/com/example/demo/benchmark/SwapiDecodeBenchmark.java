@@ -0,0 +1,50 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.client.SwapiPageReader;
+import com.example.demo.models.SwapiStarshipResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a real SWAPI starship search page: the original Object to String to model round trip,
+ * a plain typed Jackson bind, and the streaming {@link SwapiPageReader} the clients use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwapiDecodeBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SwapiPageReader pageReader = new SwapiPageReader(objectMapper);
+    private byte[] page;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/swapi/starships-search.json")) {
+            this.page = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public SwapiStarshipResponse doubleConversion() throws IOException {
+        Object body = objectMapper.readValue(page, Object.class);
+        return objectMapper.readValue(objectMapper.writeValueAsString(body), SwapiStarshipResponse.class);
+    }
+
+    @Benchmark
+    public SwapiStarshipResponse typed() throws IOException {
+        return objectMapper.readValue(page, SwapiStarshipResponse.class);
+    }
+
+    @Benchmark
+    public SwapiStarshipResponse streaming() throws IOException {
+        return pageReader.readPage(new ByteArrayInputStream(page), SwapiStarshipResponse.class, 2);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.InformationRequest;
+import com.example.demo.models.Response;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HTTP validation of the /information responses.
+ * Successful responses carry a strong ETag and a Cache-Control max-age, and the ETag of the latest response to every
+ * lookup is remembered for the configured validity, so a client revalidating within it gets a 304 without the lookup
+ * being run again or the response being encoded. The ETag is taken from the {@link Response} rather than its encoding,
+ * so it is the same whether the response was looked up or served from the snapshot, and each
+ * {@link InformationFormat} derives its own from it. All the responses vary by Accept.
+ * <ul>
+ *     <li>{@code information.not.modified}: the requests answered with 304 Not Modified</li>
+ * </ul>
+ */
+@Component
+public class InformationETags {
+    private final Cache<InformationRequest, String> eTags;
+    private final CacheControl cacheControl;
+    private final Counter notModified;
+
+    public InformationETags(SwapiProperties swapiProperties, MeterRegistry meterRegistry) {
+        SwapiProperties.ResponseCache responseCache = swapiProperties.getResponseCache();
+        this.eTags = Caffeine.newBuilder()
+                .maximumSize(responseCache.getMaximumSize())
+                .expireAfterWrite(responseCache.getValidity())
+                .build();
+        this.cacheControl = CacheControl.maxAge(responseCache.getMaxAge());
+        this.notModified = Counter.builder("information.not.modified")
+                .description("The /information requests answered with 304 Not Modified")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the strong, quoted entity tag of a response
+     */
+    public static String eTag(Response response) {
+        return "\"" + DigestUtils.md5DigestAsHex(response.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Answers a revalidation from the remembered ETag of the lookup.
+     *
+     * @param request     the lookup
+     * @param format      the format the response would be served in
+     * @param ifNoneMatch the If-None-Match header of the request, or null
+     * @return a 304 response if the client holds the latest response to the lookup, null otherwise
+     */
+    public ResponseEntity<Response> notModified(InformationRequest request, InformationFormat format, String ifNoneMatch) {
+        String eTag = ifNoneMatch == null ? null : eTags.getIfPresent(request);
+        return eTag == null ? null : notModified(format.eTag(eTag), ifNoneMatch);
+    }
+
+    /**
+     * Answers a revalidation of a response whose ETag is known.
+     *
+     * @param eTag        the ETag of the response that would be served, in the format it would be served in, or null
+     * @param ifNoneMatch the If-None-Match header of the request, or null
+     * @return a 304 response if the client holds that response, null otherwise
+     */
+    public ResponseEntity<Response> notModified(String eTag, String ifNoneMatch) {
+        if (eTag == null || ifNoneMatch == null || !matches(ifNoneMatch, eTag)) {
+            return null;
+        }
+        notModified.increment();
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * Adds the validators to a looked up response and remembers its ETag, or answers with 304 if the client already
+     * holds it. Failed responses are not to be cached.
+     *
+     * @param request     the lookup
+     * @param format      the format to serve the response in
+     * @param ifNoneMatch the If-None-Match header of the request, or null
+     * @param response    the response to the lookup
+     * @return the response with its content type, ETag and Cache-Control, or a 304 response
+     */
+    public ResponseEntity<Response> validated(InformationRequest request, InformationFormat format, String ifNoneMatch,
+                                              ResponseEntity<Response> response) {
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).contentType(format.getMediaType())
+                    .cacheControl(CacheControl.noStore()).varyBy(HttpHeaders.ACCEPT).body(response.getBody());
+        }
+        String eTag = eTag(response.getBody());
+        eTags.put(request, eTag);
+        String formatETag = format.eTag(eTag);
+        ResponseEntity<Response> notModified = notModified(formatETag, ifNoneMatch);
+        if (notModified != null) {
+            return notModified;
+        }
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).contentType(format.getMediaType())
+                .eTag(formatETag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).body(response.getBody());
+    }
+
+    /**
+     * @return the Cache-Control of successful responses
+     */
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header with an ETag, as RFC 9110 asks for If-None-Match.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        String opaqueTag = stripWeak(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The encodings the /information responses are served in, negotiated from the Accept header.
+ * JSON is the default, CBOR and Smile are binary encodings of the same fields for the internal consumers that call at
+ * high rates. All of them are written from the same Jackson annotations, so a missing starship is an empty map in every
+ * format as {@link com.example.demo.models.EmptyStarshipSerializer} writes it in JSON.
+ */
+@RequiredArgsConstructor
+public enum InformationFormat {
+    JSON(MediaType.APPLICATION_JSON, null, JsonFactory::new),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor", CBORFactory::new),
+    SMILE(new MediaType("application", "x-jackson-smile"), "smile", SmileFactory::new);
+
+    @Getter
+    private final MediaType mediaType;
+    private final String eTagSuffix;
+    private final Supplier<JsonFactory> factory;
+
+    /**
+     * A strong ETag identifies one representation, so the binary formats tag a response differently from JSON.
+     *
+     * @param eTag the strong, quoted ETag of the response, as {@link InformationETags#eTag} makes it
+     * @return the ETag of the response encoded in this format
+     */
+    public String eTag(String eTag) {
+        return eTagSuffix == null ? eTag : eTag.substring(0, eTag.length() - 1) + "-" + eTagSuffix + "\"";
+    }
+
+    /**
+     * @param objectMapper the JSON mapper whose configuration to keep
+     * @return a mapper writing this format with the same configuration
+     */
+    public ObjectMapper mapper(ObjectMapper objectMapper) {
+        return this == JSON ? objectMapper : objectMapper.copyWith(factory.get());
+    }
+
+    /**
+     * Picks the format with the highest quality in the Accept header, taking the quality of a format from the most
+     * specific media range that includes it, and JSON on a tie.
+     *
+     * @param accept the Accept header of the request, or null
+     * @return the format to respond in, JSON if the header accepts none of them or cannot be parsed
+     */
+    public static InformationFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        InformationFormat best = JSON;
+        double bestQuality = 0;
+        for (InformationFormat format : values()) {
+            double quality = quality(acceptable, format.mediaType);
+            if (quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static double quality(List<MediaType> acceptable, MediaType mediaType) {
+        MediaType mostSpecific = null;
+        for (MediaType range : acceptable) {
+            if (range.includes(mediaType) && (mostSpecific == null || wildcards(range) < wildcards(mostSpecific))) {
+                mostSpecific = range;
+            }
+        }
+        return mostSpecific == null ? 0 : mostSpecific.getQualityValue();
+    }
+
+    private static int wildcards(MediaType range) {
+        return (range.isWildcardType() ? 1 : 0) + (range.isWildcardSubtype() ? 1 : 0);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo;
+
+import com.example.demo.config.SwapiProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the /information lookups: a limit on the lookups in flight, adapted with AIMD.
+ * Every lookup that completes in time while the limit is in use raises it by one, and every lookup that failed or
+ * took longer than the latency threshold cuts it by the backoff ratio, so the limit follows what SWAPI keeps up with.
+ * Lookups over the limit are rejected straight away rather than queued.
+ * <ul>
+ *     <li>{@code information.limit}: the current limit</li>
+ *     <li>{@code information.inflight}: the lookups in flight</li>
+ *     <li>{@code information.rejections}: the lookups rejected over the limit</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class InformationLimiter {
+    private final SwapiProperties.Limit limitProperties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+    private volatile double limit;
+
+    public InformationLimiter(SwapiProperties swapiProperties, MeterRegistry meterRegistry) {
+        this.limitProperties = swapiProperties.getLimit();
+        this.limit = limitProperties.getInitialLimit();
+        Gauge.builder("information.limit", this, InformationLimiter::getLimit)
+                .description("Limit on the /information lookups in flight")
+                .register(meterRegistry);
+        Gauge.builder("information.inflight", inFlight, AtomicInteger::get)
+                .description("The /information lookups in flight")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("information.rejections")
+                .description("The /information lookups rejected over the limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits lookups if they fit under the limit.
+     * Many lookups admitted at once, as for a batch, count as at most the whole limit so a large batch can still run alone.
+     *
+     * @param lookups the number of lookups to admit
+     * @return the permit to release once the lookups completed, or null if they were rejected
+     */
+    public Permit tryAcquire(int lookups) {
+        int currentLimit = getLimit();
+        int weight = Math.max(1, Math.min(lookups, currentLimit));
+        while (true) {
+            int current = inFlight.get();
+            if (limitProperties.isEnabled() && current + weight > currentLimit) {
+                rejections.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + weight)) {
+                return new Permit(weight, current + weight);
+            }
+        }
+    }
+
+    /**
+     * @return a 503 response asking the client to come back after the configured delay, in whole seconds
+     */
+    public ResponseEntity.BodyBuilder rejected() {
+        long retryAfterSeconds = Math.max(1, (limitProperties.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void adapt(long latencyNanos, boolean failed, int inFlightAtStart) {
+        if (failed || latencyNanos > limitProperties.getLatencyThreshold().toNanos()) {
+            limit = Math.max(limitProperties.getMinLimit(), limit * limitProperties.getBackoffRatio());
+            log.debug("Lowered /information limit to {}", getLimit());
+        } else if (2 * inFlightAtStart >= limit) {
+            // Only grow a limit that is being used, an idle service learns nothing about its capacity
+            limit = Math.min(limitProperties.getMaxLimit(), limit + 1);
+        }
+    }
+
+    /**
+     * Lookups admitted under the limit.
+     */
+    public class Permit {
+        private final int weight;
+        private final int inFlightAtStart;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int weight, int inFlightAtStart) {
+            this.weight = weight;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the lookups and adapts the limit to how they went. Only the first release counts.
+         *
+         * @param failed whether the lookups failed, which is taken as a sign of overload
+         */
+        public void release(boolean failed) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.addAndGet(-weight);
+            adapt(System.nanoTime() - start, failed, inFlightAtStart);
+        }
+
+        /**
+         * Releases the lookups without adapting the limit, as when the caller went away before they completed.
+         */
+        public void cancelled() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.addAndGet(-weight);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo;
+
+import com.example.demo.config.SwapiProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end timing of the /information lookups, from the request to the response being built,
+ * tagged with the endpoint, single or batch, and the outcome: ok or internal_server_error.
+ * A batch is timed once, as a whole, and is internal_server_error if any of its lookups failed.
+ * The time of the first lookup since startup is kept as {@code information.lookups.first}, to tell how well the warm-up worked.
+ */
+@Component
+public class InformationMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Timer ok;
+    private final Timer internalServerError;
+    private final Timer batchOk;
+    private final Timer batchInternalServerError;
+    private final AtomicLong firstLookupNanos = new AtomicLong(-1);
+
+    public InformationMetrics(MeterRegistry meterRegistry, SwapiProperties swapiProperties) {
+        this.meterRegistry = meterRegistry;
+        this.ok = timer("single", "ok", swapiProperties.getRequest().getTimeout());
+        this.internalServerError = timer("single", "internal_server_error", swapiProperties.getRequest().getTimeout());
+        this.batchOk = timer("batch", "ok", swapiProperties.getRequest().getTimeout());
+        this.batchInternalServerError = timer("batch", "internal_server_error", swapiProperties.getRequest().getTimeout());
+        Gauge.builder("information.lookups.first", firstLookupNanos, nanos -> nanos.get() < 0 ? Double.NaN : nanos.get() / (double) TimeUnit.SECONDS.toNanos(1))
+                .description("Time of the first lookup since startup")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Records a lookup that completed with the given status.
+     *
+     * @param sample the sample started with the lookup
+     * @param status the status of the lookup
+     */
+    public void record(Timer.Sample sample, HttpStatusCode status) {
+        long nanos = sample.stop(status.isError() ? internalServerError : ok);
+        firstLookupNanos.compareAndSet(-1, nanos);
+    }
+
+    /**
+     * Records a batch of lookups that completed with the given status.
+     *
+     * @param sample the sample started with the batch
+     * @param status the status of the batch, an error if any of its lookups failed
+     */
+    public void recordBatch(Timer.Sample sample, HttpStatusCode status) {
+        long nanos = sample.stop(status.isError() ? batchInternalServerError : batchOk);
+        firstLookupNanos.compareAndSet(-1, nanos);
+    }
+
+    private Timer timer(String endpoint, String outcome, Duration maximumExpectedLatency) {
+        return Timer.builder("information.lookups")
+                .description("Starship information lookups, from the request to the response")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(maximumExpectedLatency)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes the default /information response to its subscribers as Server-Sent Events, instead of them polling for it.
+ * While anyone is subscribed, the response is looked up again every refresh interval, and only a response that differs
+ * from the previous one is pushed; a new subscriber gets the latest response straight away. All subscribers share the
+ * one refresh, so SWAPI sees the same load for one subscriber as for thousands.
+ * Every subscriber holds at most the latest response it has not been sent yet, a slow subscriber skips the responses in
+ * between rather than buffering them, and gets a heartbeat comment every heartbeat interval to keep the connection open.
+ * <ul>
+ *     <li>{@code information.stream.subscribers}: the open streams</li>
+ *     <li>{@code information.stream.changes}: the changed responses pushed to the subscribers</li>
+ *     <li>{@code information.stream.rejections}: the streams refused over the subscriber limit</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class InformationStream {
+    private static final String EVENT = "information";
+
+    private final SwapiProperties.Stream streamProperties;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter changes;
+    private final Counter rejections;
+    private Flux<Response> responses;
+
+    public InformationStream(SwapiProperties swapiProperties, MeterRegistry meterRegistry) {
+        this.streamProperties = swapiProperties.getStream();
+        Gauge.builder("information.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open /information streams")
+                .register(meterRegistry);
+        this.changes = Counter.builder("information.stream.changes")
+                .description("Changed /information responses pushed to the streams")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("information.stream.rejections")
+                .description("/information streams refused over the subscriber limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream if it fits under the subscriber limit.
+     *
+     * @param lookup looks the default response up, empty if the lookup failed; the lookup of the first stream drives
+     *               the refreshes of all of them
+     * @return the events of the stream, or null if it was refused
+     */
+    public Flux<ServerSentEvent<Response>> subscribe(Supplier<Mono<Response>> lookup) {
+        if (subscribers.get() >= streamProperties.getMaxSubscribers()) {
+            rejections.increment();
+            return null;
+        }
+        Flux<ServerSentEvent<Response>> events = responses(lookup)
+                .onBackpressureLatest()
+                .map(response -> ServerSentEvent.builder(response).event(EVENT).id(InformationETags.eTag(response)).build());
+        Flux<ServerSentEvent<Response>> heartbeats = Flux.interval(streamProperties.getHeartbeat())
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<Response>builder().comment("heartbeat").build());
+        // Counted once subscribed, so a stream that is never subscribed to does not hold a place
+        return Flux.merge(events, heartbeats)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    public int getSubscribers() {
+        return subscribers.get();
+    }
+
+    private synchronized Flux<Response> responses(Supplier<Mono<Response>> lookup) {
+        if (responses == null) {
+            Duration refreshInterval = streamProperties.getRefreshInterval();
+            responses = Flux.interval(Duration.ZERO, refreshInterval)
+                    // A lookup slower than the interval delays the next one rather than queueing ticks
+                    .onBackpressureDrop()
+                    .concatMap(tick -> lookup.get().onErrorResume(e -> {
+                        log.warn("Failed to refresh the /information stream", e);
+                        return Mono.empty();
+                    }), 1)
+                    .distinctUntilChanged()
+                    .doOnNext(response -> changes.increment())
+                    // Shared by the subscribers, replaying the latest response to new ones, and stopped without any
+                    .replay(1)
+                    .refCount();
+        }
+        return responses;
+    }
+}
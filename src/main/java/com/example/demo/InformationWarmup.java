@@ -0,0 +1,216 @@
+package com.example.demo;
+
+import com.example.demo.client.SwapiPageReader;
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.StarshipController.*;
+import static com.example.demo.client.SwapiSearcher.ALL_RESULTS;
+
+/**
+ * Warms the service up after the context is refreshed and before it reports ready.
+ * Application runners complete before Spring Boot moves the readiness state to ACCEPTING_TRAFFIC, so the readiness
+ * probe stays down until the warm-up is over. The warm-up
+ * <ul>
+ *     <li>encodes and decodes the SWAPI models and the {@link Response} the configured number of times, so the JIT
+ *     compiles those paths and Jackson builds its serializers before the first request,</li>
+ *     <li>opens pooled connections to SWAPI, so the first lookups do not pay for the TCP and TLS handshakes,</li>
+ *     <li>and runs the default lookup, which leaves its searches in the cache and the homeworld in the entity store.</li>
+ * </ul>
+ * A stage that fails or times out is logged and skipped, SWAPI being down must not keep the service from starting.
+ * Every stage is timed as {@code information.warmup} tagged with the stage, and with {@code stage=total} for all of them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "swapi.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class InformationWarmup implements ApplicationRunner {
+    private final ObjectMapper objectMapper;
+    private final SwapiPageReader pageReader;
+    private final SwapiProperties.Warmup warmup;
+    private final MeterRegistry meterRegistry;
+    private final String swapiUrl;
+    private final RestTemplate restTemplate;
+    private final ExecutorService swapiExecutor;
+    private final ObjectProvider<StarshipController> starshipController;
+    private final ObjectProvider<ReactiveStarshipController> reactiveStarshipController;
+    private final ObjectProvider<WebClient> swapiWebClient;
+
+    public InformationWarmup(ObjectMapper objectMapper, SwapiPageReader pageReader, SwapiProperties swapiProperties,
+                             MeterRegistry meterRegistry, @Value("${swapi.api.url}") String swapiUrl, RestTemplate restTemplate,
+                             ExecutorService swapiExecutor, ObjectProvider<StarshipController> starshipController,
+                             ObjectProvider<ReactiveStarshipController> reactiveStarshipController, ObjectProvider<WebClient> swapiWebClient) {
+        this.objectMapper = objectMapper;
+        this.pageReader = pageReader;
+        this.warmup = swapiProperties.getWarmup();
+        this.meterRegistry = meterRegistry;
+        this.swapiUrl = swapiUrl;
+        this.restTemplate = restTemplate;
+        this.swapiExecutor = swapiExecutor;
+        this.starshipController = starshipController;
+        this.reactiveStarshipController = reactiveStarshipController;
+        this.swapiWebClient = swapiWebClient;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Warming up before reporting ready");
+        Timer.Sample total = Timer.start(meterRegistry);
+        stage("codecs", this::exerciseCodecs);
+        stage("connections", this::openConnections);
+        stage("prefetch", this::prefetch);
+        long nanos = total.stop(timer("total"));
+        log.info("Warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    private void stage(String name, Stage stage) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            stage.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Warm-up {} interrupted", name);
+        } catch (Exception e) {
+            log.warn("Warm-up {} failed, skipping it", name, e);
+        } finally {
+            long nanos = sample.stop(timer(name));
+            log.info("Warm-up {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    private Timer timer(String stage) {
+        return Timer.builder("information.warmup")
+                .description("Time spent warming up before reporting ready")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the same decode and encode paths as a lookup, on models shaped like SWAPI's.
+     */
+    private void exerciseCodecs() throws Exception {
+        Starship deathStar = Starship.builder().name(DEATH_START_CONST).model("DS-1 Orbital Battle Station")
+                .starshipClass("Deep Space Mobile Battlestation").build();
+        byte[] starships = objectMapper.writeValueAsBytes(SwapiStarshipResponse.builder().count(1).results(List.of(
+                StarshipResponse.builder().name(deathStar.getName()).model(deathStar.getModel()).starshipClass(deathStar.getStarshipClass())
+                        .crew("342,953").url(swapiUrl + "/starships/9/").build())).build());
+        byte[] people = objectMapper.writeValueAsBytes(SwapiPersonResponse.builder().count(1).results(List.of(
+                Person.builder().name(LEIA_NAME_CONST).homeworld(swapiUrl + "/planets/2/").url(swapiUrl + "/people/5/").build())).build());
+        PlanetResponse alderaan = PlanetResponse.builder().name(ALDERAAN_PLANET_CONST).url(swapiUrl + "/planets/2/").build();
+        byte[] planets = objectMapper.writeValueAsBytes(SwapiPlanetResponse.builder().count(1).results(List.of(alderaan)).build());
+        byte[] planet = objectMapper.writeValueAsBytes(alderaan);
+        long bytes = 0;
+        for (int i = 0; i < warmup.getIterations(); i++) {
+            pageReader.readPage(new ByteArrayInputStream(starships), SwapiStarshipResponse.class, ALL_RESULTS);
+            pageReader.readPage(new ByteArrayInputStream(people), SwapiPersonResponse.class, ALL_RESULTS);
+            pageReader.readPage(new ByteArrayInputStream(planets), SwapiPlanetResponse.class, ALL_RESULTS);
+            pageReader.readEntity(new ByteArrayInputStream(planet), PlanetResponse.class);
+            Response response = Response.builder().starship(deathStar).crew("342,953").isLeiaOnPlanet("true").build();
+            bytes += objectMapper.writeValueAsBytes(response).length;
+            // The empty response goes through the EmptyStarshipSerializer
+            bytes += objectMapper.writeValueAsBytes(Response.builder().build()).length;
+            bytes += InformationETags.eTag(response).length();
+        }
+        log.debug("Warm-up encoded {} bytes", bytes);
+    }
+
+    /**
+     * Opens the connections in parallel, so each one is a new connection left in the pool.
+     * Any response, even an error status, means the connection was opened.
+     */
+    private void openConnections() throws Exception {
+        String root = swapiUrl + "/";
+        int connections = warmup.getConnections();
+        WebClient webClient = swapiWebClient.getIfAvailable();
+        long opened;
+        if (webClient != null) {
+            opened = Flux.range(0, connections)
+                    .flatMap(i -> webClient.get().uri(root).exchangeToMono(ClientResponse::releaseBody).thenReturn(i)
+                            .onErrorResume(e -> {
+                                log.debug("Warm-up connection to {} failed", root, e);
+                                return Mono.empty();
+                            }), connections)
+                    .count()
+                    .block(warmup.getTimeout());
+        } else {
+            long deadline = System.nanoTime() + warmup.getTimeout().toNanos();
+            List<Future<?>> calls = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                calls.add(swapiExecutor.submit(() -> restTemplate.execute(root, HttpMethod.GET, null, response -> null)));
+            }
+            opened = 0;
+            for (Future<?> call : calls) {
+                try {
+                    call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    opened++;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RestClientResponseException) {
+                        opened++;
+                    } else {
+                        log.debug("Warm-up connection to {} failed", root, e.getCause());
+                    }
+                } finally {
+                    call.cancel(true);
+                }
+            }
+        }
+        log.info("Warm-up opened {} of {} connections to {}", opened, connections, root);
+    }
+
+    /**
+     * Runs the default lookup the way a request does: the starship and person searches, then the link to the homeworld.
+     * It is a background lookup, so it is neither admitted by the limiter nor timed as a client lookup.
+     */
+    private void prefetch() throws Exception {
+        Duration timeout = warmup.getTimeout();
+        ResponseEntity<Response> response;
+        ReactiveStarshipController reactive = reactiveStarshipController.getIfAvailable();
+        if (reactive != null) {
+            response = reactive.lookupInBackground(new InformationRequest(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST))
+                    .block(timeout);
+        } else {
+            StarshipController controller = starshipController.getIfAvailable();
+            if (controller == null) {
+                return;
+            }
+            Future<ResponseEntity<Response>> lookup = swapiExecutor.submit(controller::lookupInBackground);
+            try {
+                response = lookup.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } finally {
+                lookup.cancel(true);
+            }
+        }
+        log.info("Warm-up prefetched the default lookup with status {}", response == null ? null : response.getStatusCode());
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+}
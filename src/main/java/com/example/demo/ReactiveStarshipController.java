@@ -0,0 +1,190 @@
+package com.example.demo;
+
+import com.example.demo.client.ReactiveSwapiSearcher;
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.*;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.example.demo.StarshipController.*;
+
+/**
+ * Non-blocking variant of {@link StarshipController}, enabled by the {@code reactive} profile.
+ * The SWAPI lookups run concurrently without holding a thread while they wait,
+ * and the response is the same {@link Response} model, so the JSON is identical to the blocking variant.
+ */
+@RestController
+@RequestMapping("/information")
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveStarshipController {
+    private final ReactiveSwapiSearcher swapiSearcher;
+
+    private final String swapiStarshipSearchUrl;
+    private final String swapiPeopleSearchUrl;
+
+    private final SwapiProperties swapiProperties;
+    private final InformationMetrics informationMetrics;
+    private final InformationLimiter informationLimiter;
+    private final InformationETags informationETags;
+    private final InformationStream informationStream;
+
+    /**
+     * Serves starship information and whether the person is on the planet.
+     * A client that still holds the latest response is answered with 304 before anything is looked up or encoded.
+     * Only served as JSON, the binary formats of {@link InformationFormat} are negotiated by the blocking controller.
+     *
+     * @param starship    the name of the starship
+     * @param person      the name of the person
+     * @param planet      the name of the planet
+     * @param ifNoneMatch the ETags of the responses the client holds, if any
+     * @return ResponseEntity with the starship information and whether the person is on the planet
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Response>> information(@RequestParam(defaultValue = DEATH_START_CONST) String starship,
+                                                      @RequestParam(defaultValue = LEIA_NAME_CONST) String person,
+                                                      @RequestParam(defaultValue = ALDERAAN_PLANET_CONST) String planet,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        InformationRequest request = new InformationRequest(starship, person, planet);
+        ResponseEntity<Response> notModified = informationETags.notModified(request, InformationFormat.JSON, ifNoneMatch);
+        if (notModified != null) {
+            return Mono.just(notModified);
+        }
+        return getStarshipInformation(request).map(response -> informationETags.validated(request, InformationFormat.JSON, ifNoneMatch, response));
+    }
+
+    /**
+     * Streams the default lookup as Server-Sent Events: the current response on connect, then every change to it.
+     *
+     * @return the stream, or 503 if too many streams are open
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<Response>>> stream() {
+        InformationRequest request = new InformationRequest(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
+        Flux<ServerSentEvent<Response>> events = informationStream.subscribe(() -> lookupInBackground(request)
+                .filter(response -> response.getStatusCode().is2xxSuccessful())
+                .mapNotNull(ResponseEntity::getBody));
+        if (events == null) {
+            log.warn("Rejected /information stream over the limit of {} streams", swapiProperties.getStream().getMaxSubscribers());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(events);
+    }
+
+    /**
+     * Retrieves starship information and whether the person is on the planet.
+     * The lookups fail together once the request timeout has passed.
+     *
+     * @param request the starship, person and planet to look up
+     * @return ResponseEntity with the starship information and whether the person is on the planet
+     */
+    public Mono<ResponseEntity<Response>> getStarshipInformation(InformationRequest request) {
+        return Mono.defer(() -> {
+            InformationLimiter.Permit permit = informationLimiter.tryAcquire(1);
+            if (permit == null) {
+                log.warn("Rejected GET request for starship information {} over the limit of {} lookups in flight", request, informationLimiter.getLimit());
+                return Mono.just(informationLimiter.rejected().body(Response.builder().build()));
+            }
+            log.info("Received GET request for starship information {}", request);
+            Timer.Sample sample = informationMetrics.start();
+            return lookup(request)
+                    .doOnNext(response -> {
+                        permit.release(response.getStatusCode().isError());
+                        informationMetrics.record(sample, response.getStatusCode());
+                    })
+                    // A caller that went away still frees its place
+                    .doOnCancel(permit::cancelled);
+        });
+    }
+
+    /**
+     * Looks a request up for the background refreshes of the stream, and for the warm-up.
+     * Unlike the lookups of client requests, it is not admitted by the {@link InformationLimiter}, so it is not shed
+     * under load, and not timed by {@link InformationMetrics}, so it does not skew the client latencies.
+     *
+     * @param request the starship, person and planet to look up
+     * @return ResponseEntity with the starship information and whether the person is on the planet
+     */
+    public Mono<ResponseEntity<Response>> lookupInBackground(InformationRequest request) {
+        return Mono.defer(() -> lookup(request));
+    }
+
+    private Mono<ResponseEntity<Response>> lookup(InformationRequest request) {
+        return Mono.zip(getStarship(request.getStarship()), isPersonOnPlanet(request.getPerson(), request.getPlanet()))
+                .map(results -> ResponseEntity.ok().body(toResponse(results.getT1(), results.getT2())))
+                .timeout(swapiProperties.getRequest().getTimeout())
+                .onErrorResume(e -> {
+                    log.error("Exception in getting response for GET request for starship information {}", request, e);
+                    return Mono.just(ResponseEntity.internalServerError().body(Response.builder().build()));
+                });
+    }
+
+    /**
+     * Retrieves starship information from the Star Wars API.
+     *
+     * @param name the name of the starship
+     * @return StarshipInformation object containing the starship details
+     */
+    protected Mono<StarshipInformation> getStarship(String name) {
+        return swapiSearcher.findByName(swapiStarshipSearchUrl, name, SwapiStarshipResponse.class, StarshipResponse::getName)
+                .map(starshipResponse -> {
+                    log.info("Response for SWAPI API to get starship information is successful {}", starshipResponse);
+                    return StarshipInformation
+                            .builder()
+                            .crewCount(starshipResponse.getCrew())
+                            .starship(Starship.builder().starshipClass(starshipResponse.getStarshipClass()).model(starshipResponse.getModel()).name(starshipResponse.getName()).build())
+                            .build();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("No response for SWAPI API to get starship information {}", name);
+                    return StarshipInformation.builder().build();
+                }));
+    }
+
+    /**
+     * Checks if the person is on the planet.
+     * The homeworld of the person is followed by URL, from the entity store when it is there, and compared by name.
+     *
+     * @param person the name of the person
+     * @param planet the name of the planet
+     * @return true if the person is on the planet, false otherwise
+     */
+    protected Mono<Boolean> isPersonOnPlanet(String person, String planet) {
+        return getHomeworld(person)
+                .flatMap(homeworld -> swapiSearcher.resolve(homeworld, PlanetResponse.class))
+                .map(homeworld -> isPlanet(homeworld, planet))
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Retrieves the homeworld URL of a person.
+     *
+     * @param name the name of the person
+     * @return the homeworld URL of the person, or empty if they could not be found
+     */
+    protected Mono<String> getHomeworld(String name) {
+        return swapiSearcher.findByName(swapiPeopleSearchUrl, name, SwapiPersonResponse.class, Person::getName)
+                .doOnNext(person -> log.info("Response for SWAPI API to get person information is successful {}", person))
+                .switchIfEmpty(Mono.fromRunnable(() -> log.warn("No response for SWAPI API to get person information {}", name)))
+                .mapNotNull(Person::getHomeworld);
+    }
+
+    private Response toResponse(StarshipInformation starship, boolean isPersonOnPlanet) {
+        return Response.builder().starship(starship.getStarship()).crew(starship.getCrewCount()).isLeiaOnPlanet(String.valueOf(isPersonOnPlanet)).build();
+    }
+}
@@ -1,77 +1,277 @@
 package com.example.demo;
 
+import com.example.demo.client.SwapiSearcher;
+import com.example.demo.config.SwapiProperties;
 import com.example.demo.models.*;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.snapshot.InformationSnapshot;
+import com.example.demo.snapshot.InformationSnapshotStore;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /**
- * Controller for retrieving starship information and Leia's location.
+ * Controller for retrieving starship information and whether a person is on a planet,
+ * by default the Death Star and Leia's location.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/information")
 @RequiredArgsConstructor
 @Slf4j
 public class StarshipController {
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    static final String DEATH_START_CONST = "Death Star";
+    static final String LEIA_NAME_CONST = "Leia Organa";
+    static final String ALDERAAN_PLANET_CONST = "Alderaan";
+
+    private final SwapiSearcher swapiSearcher;
 
     private final String swapiStarshipSearchUrl;
     private final String swapiPeopleSearchUrl;
-    private final String swapiPlanetSearchUrl;
 
-    private final Integer ONE_RESULT = 1;
-    private final Integer FIRST_RESULT_INDEX = 0;
-    private final String DEATH_START_CONST = "Death Star";
-    private final String LEIA_NAME_CONST = "Leia Organa";
-    private final String ALDERAAN_PLANET_CONST = "Alderaan";
+    private final ExecutorService swapiExecutor;
+    private final SwapiProperties swapiProperties;
+    private final InformationSnapshotStore snapshotStore;
+    private final InformationMetrics informationMetrics;
+    private final InformationLimiter informationLimiter;
+    private final InformationETags informationETags;
+    private final InformationStream informationStream;
+
+    private final InformationRequest DEFAULT_REQUEST = new InformationRequest(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
 
     /**
-     * Retrieves starship information and Leia's location.
+     * Serves starship information and whether the person is on the planet.
+     * The default lookup is served from the pre-encoded snapshot when one is available.
+     * A client that still holds the latest response is answered with 304 before anything is looked up or encoded.
+     * The response is JSON unless the Accept header prefers one of the binary {@link InformationFormat}s.
      *
-     * @return ResponseEntity with the starship information and Leia's location
+     * @param starship    the name of the starship
+     * @param person      the name of the person
+     * @param planet      the name of the planet
+     * @param ifNoneMatch the ETags of the responses the client holds, if any
+     * @param accept      the formats the client accepts, if any
+     * @return ResponseEntity with the starship information and whether the person is on the planet
      */
     @GetMapping
+    public ResponseEntity<?> information(@RequestParam(defaultValue = DEATH_START_CONST) String starship,
+                                         @RequestParam(defaultValue = LEIA_NAME_CONST) String person,
+                                         @RequestParam(defaultValue = ALDERAAN_PLANET_CONST) String planet,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        InformationRequest request = new InformationRequest(starship, person, planet);
+        InformationFormat format = InformationFormat.negotiate(accept);
+        InformationSnapshot snapshot = snapshotStore.current();
+        if (snapshot == null || !DEFAULT_REQUEST.equals(request)) {
+            ResponseEntity<Response> notModified = informationETags.notModified(request, format, ifNoneMatch);
+            return notModified != null ? notModified : informationETags.validated(request, format, ifNoneMatch, getStarshipInformation(request));
+        }
+        String eTag = format.eTag(snapshot.eTag());
+        ResponseEntity<Response> notModified = informationETags.notModified(eTag, ifNoneMatch);
+        if (notModified != null) {
+            return notModified;
+        }
+        byte[] body = snapshot.body(format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .contentLength(body.length)
+                .eTag(eTag)
+                .cacheControl(informationETags.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    /**
+     * Streams the default lookup as Server-Sent Events: the current response on connect, then every change to it.
+     *
+     * @return the stream, or 503 if too many streams are open
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<Response>>> stream() {
+        Flux<ServerSentEvent<Response>> events = informationStream.subscribe(() -> Mono.fromCallable(this::lookupInBackground)
+                // The lookup blocks while it waits for SWAPI
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(response -> response.getStatusCode().is2xxSuccessful())
+                .mapNotNull(ResponseEntity::getBody));
+        if (events == null) {
+            log.warn("Rejected /information stream over the limit of {} streams", swapiProperties.getStream().getMaxSubscribers());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(events);
+    }
+
+    /**
+     * Serves many lookups in one call.
+     * Names repeated across the lookups are only looked up once, and all distinct lookups run in parallel.
+     * The homeworlds of all the people are then followed together, fetching the ones missing from the entity store in parallel.
+     *
+     * @param requests the lookups, with missing names defaulting as in the GET endpoint
+     * @return ResponseEntity with the result of every lookup in input order, each with its own status
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResponse>> getBatchInformation(@RequestBody List<InformationRequest> requests) {
+        if (requests.size() > swapiProperties.getBatch().getMaxSize()) {
+            log.warn("Rejected batch request for starship information with {} lookups", requests.size());
+            return ResponseEntity.badRequest().build();
+        }
+        InformationLimiter.Permit permit = informationLimiter.tryAcquire(requests.size());
+        if (permit == null) {
+            log.warn("Rejected batch request for starship information with {} lookups over the limit of {} in flight",
+                    requests.size(), informationLimiter.getLimit());
+            return informationLimiter.rejected().build();
+        }
+        log.info("Received batch request for starship information with {} lookups", requests.size());
+        Timer.Sample sample = informationMetrics.start();
+        long deadline = deadline();
+        List<InformationRequest> lookups = requests.stream().map(this::withDefaults).toList();
+        Map<String, Future<StarshipInformation>> starships = new HashMap<>();
+        Map<String, Future<String>> homeworlds = new HashMap<>();
+        Future<Map<String, Future<PlanetResponse>>> planets = null;
+        boolean failed = true;
+        try {
+            for (InformationRequest lookup : lookups) {
+                starships.computeIfAbsent(lookup.getStarship(), name -> submit(() -> getStarship(name)));
+                homeworlds.computeIfAbsent(lookup.getPerson(), name -> submit(() -> getHomeworld(name)));
+            }
+            Set<String> homeworldUrls = new HashSet<>();
+            for (Future<String> homeworld : homeworlds.values()) {
+                try {
+                    homeworldUrls.add(await(homeworld, deadline));
+                } catch (Exception e) {
+                    // Reported by the lookups of that person below
+                }
+            }
+            homeworldUrls.remove(null);
+            planets = submit(() -> swapiSearcher.resolveAll(homeworldUrls, PlanetResponse.class));
+            List<BatchItemResponse> results = new ArrayList<>(lookups.size());
+            for (InformationRequest lookup : lookups) {
+                try {
+                    StarshipInformation starship = await(starships.get(lookup.getStarship()), deadline);
+                    String homeworld = await(homeworlds.get(lookup.getPerson()), deadline);
+                    boolean isPersonOnPlanet = homeworld != null
+                            && isPlanet(await(await(planets, deadline).get(homeworld), deadline), lookup.getPlanet());
+                    results.add(BatchItemResponse.builder().status(HttpStatus.OK.value()).response(toResponse(starship, isPersonOnPlanet)).build());
+                } catch (Exception e) {
+                    log.error("Exception in getting response for batch lookup {}", lookup, e);
+                    results.add(BatchItemResponse.builder().status(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                            .response(Response.builder().build()).error(String.valueOf(e.getMessage())).build());
+                }
+            }
+            failed = results.stream().anyMatch(result -> result.getStatus() != HttpStatus.OK.value());
+            return ResponseEntity.ok().body(results);
+        } finally {
+            Stream.of(starships, homeworlds).flatMap(futures -> futures.values().stream())
+                    .forEach(future -> future.cancel(true));
+            if (planets != null) {
+                planets.cancel(true);
+            }
+            permit.release(failed);
+            informationMetrics.recordBatch(sample, failed ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK);
+        }
+    }
+
+    /**
+     * Retrieves information on the Death Star and Leia's location.
+     *
+     * @return ResponseEntity with the starship information and Leia's location
+     */
     public ResponseEntity<Response> getStarshipInformation() {
+        return getStarshipInformation(DEFAULT_REQUEST);
+    }
+
+    /**
+     * Looks up the default request for the background refreshes of the snapshot and the stream, and for the warm-up.
+     * Unlike the lookups of client requests, it is not admitted by the {@link InformationLimiter}, so it is not shed
+     * under load, and not timed by {@link InformationMetrics}, so it does not skew the client latencies.
+     *
+     * @return ResponseEntity with the starship information and Leia's location
+     */
+    public ResponseEntity<Response> lookupInBackground() {
+        return lookup(DEFAULT_REQUEST);
+    }
+
+    /**
+     * Retrieves starship information and whether the person is on the planet.
+     * The starship lookup runs in parallel with the person and planet lookups.
+     *
+     * @param request the starship, person and planet to look up
+     * @return ResponseEntity with the starship information and whether the person is on the planet
+     */
+    public ResponseEntity<Response> getStarshipInformation(InformationRequest request) {
+        InformationLimiter.Permit permit = informationLimiter.tryAcquire(1);
+        if (permit == null) {
+            log.warn("Rejected GET request for starship information {} over the limit of {} lookups in flight", request, informationLimiter.getLimit());
+            return informationLimiter.rejected().body(Response.builder().build());
+        }
+        Timer.Sample sample = informationMetrics.start();
+        ResponseEntity<Response> response = lookup(request);
+        permit.release(response.getStatusCode().isError());
+        informationMetrics.record(sample, response.getStatusCode());
+        return response;
+    }
+
+    private ResponseEntity<Response> lookup(InformationRequest request) {
+        Future<StarshipInformation> starshipFuture = null;
         try {
-            log.info("Received GET request for starship information");
-            StarshipInformation starship = getStarship();
-            boolean isLeiaOnPlanet = isLeiaOnAlderaan();
+            log.info("Received GET request for starship information {}", request);
+            long deadline = deadline();
+            starshipFuture = swapiExecutor.submit(() -> getStarship(request.getStarship()));
+            boolean isPersonOnPlanet = isPersonOnPlanet(request.getPerson(), request.getPlanet());
+            StarshipInformation starship = await(starshipFuture, deadline);
 
-            return ResponseEntity.ok().body(
-                    Response.builder().starship(starship.getStarship()).crew(starship.getCrewCount()).isLeiaOnPlanet(String.valueOf(isLeiaOnPlanet)).build()
-            );
+            return ResponseEntity.ok().body(toResponse(starship, isPersonOnPlanet));
         } catch (Exception e){
             log.error("Exception in getting response for GET request for starship information %s", e);
             return ResponseEntity.internalServerError().body(
                     Response.builder().build()
             );
+        } finally {
+            if (starshipFuture != null) {
+                starshipFuture.cancel(true);
+            }
         }
     }
 
     /**
      * Retrieves starship information from the Star Wars API.
      *
+     * @param name the name of the starship
      * @return StarshipInformation object containing the starship details
      * @throws IOException if there is an error parsing the API response
      */
-    protected StarshipInformation getStarship() throws IOException {
-        String url = swapiStarshipSearchUrl + DEATH_START_CONST;
-        ResponseEntity<Object> response = restTemplate.getForEntity(url, Object.class);
-        SwapiStarshipResponse swapiStarshipResponse = objectMapper.readValue(objectMapper.writeValueAsString(response.getBody()), SwapiStarshipResponse.class);
-        if (swapiStarshipResponse.getResults() == null || swapiStarshipResponse.getResults().size() != ONE_RESULT) {
-            log.warn("No response for SWAPI API to get starship information {}", response.getStatusCode());
+    protected StarshipInformation getStarship(String name) throws IOException {
+        StarshipResponse starshipResponse = swapiSearcher.findByName(swapiStarshipSearchUrl, name, SwapiStarshipResponse.class, StarshipResponse::getName);
+        if (starshipResponse == null) {
+            log.warn("No response for SWAPI API to get starship information {}", name);
             return StarshipInformation.builder().build();
         }
-        StarshipResponse starshipResponse = swapiStarshipResponse.getResults().get(FIRST_RESULT_INDEX);
         log.info("Response for SWAPI API to get starship information is successful {}", starshipResponse);
         return StarshipInformation
                 .builder()
@@ -81,39 +281,103 @@ public class StarshipController {
     }
 
     /**
-     * Checks if Leia is on the planet Alderaan.
+     * Checks if the person is on the planet.
+     * The homeworld of the person is followed by URL, from the entity store when it is there, and compared by name.
      *
-     * @return true if Leia is on Alderaan, false otherwise
-     * @throws JsonProcessingException if there is an error parsing the API response
+     * @param person the name of the person
+     * @param planet the name of the planet
+     * @return true if the person is on the planet, false otherwise
+     * @throws IOException if there is an error parsing the API response or the lookups exceed the request deadline
      */
-    protected boolean isLeiaOnAlderaan() throws JsonProcessingException {
-        String planetUrl = getPlanetUrl();
-        String url = swapiPeopleSearchUrl + LEIA_NAME_CONST;
-        ResponseEntity<Object> response = restTemplate.getForEntity(url, Object.class);
-        SwapiPersonResponse swapiPersonResponse = objectMapper.readValue(objectMapper.writeValueAsString(response.getBody()), SwapiPersonResponse.class);
-        if (swapiPersonResponse.getResults() == null || swapiPersonResponse.getResults().size() != ONE_RESULT) {
-            log.warn("No response for SWAPI API to get Leia information {}", response.getStatusCode());
-            return false;
+    protected boolean isPersonOnPlanet(String person, String planet) throws IOException {
+        long deadline = deadline();
+        Future<Boolean> isOnPlanetFuture = swapiExecutor.submit(() -> {
+            String homeworld = getHomeworld(person);
+            return homeworld != null && isPlanet(swapiSearcher.resolve(homeworld, PlanetResponse.class), planet);
+        });
+        try {
+            return await(isOnPlanetFuture, deadline);
+        } finally {
+            isOnPlanetFuture.cancel(true);
         }
-        log.info("Response for SWAPI API to get Leia information is successful {}", swapiPersonResponse);
-        return swapiPersonResponse.getResults().get(FIRST_RESULT_INDEX).getHomeworld().equals(planetUrl);
     }
 
     /**
-     * Retrieves the URL of the planet Alderaan.
+     * Retrieves the homeworld URL of a person.
      *
-     * @return the URL of Alderaan
-     * @throws JsonProcessingException if there is an error parsing the API response
+     * @param name the name of the person
+     * @return the homeworld URL of the person, or null if they could not be found
      */
-    protected String getPlanetUrl() throws JsonProcessingException {
-        String url = swapiPlanetSearchUrl + ALDERAAN_PLANET_CONST;
-        ResponseEntity<Object> response = restTemplate.getForEntity(url, Object.class);
-        SwapiPlanetResponse swapiResponse = objectMapper.readValue(objectMapper.writeValueAsString(response.getBody()), SwapiPlanetResponse.class);
-        if (swapiResponse.getResults() == null || swapiResponse.getResults().size() != ONE_RESULT) {
-            log.warn("No response for SWAPI API to get Alderaan planet information {}", response.getStatusCode());
-            return "";
+    protected String getHomeworld(String name) {
+        Person person = swapiSearcher.findByName(swapiPeopleSearchUrl, name, SwapiPersonResponse.class, Person::getName);
+        if (person == null) {
+            log.warn("No response for SWAPI API to get person information {}", name);
+            return null;
+        }
+        log.info("Response for SWAPI API to get person information is successful {}", person);
+        return person.getHomeworld();
+    }
+
+    /**
+     * @return whether the planet has the given name, ignoring case as the searches do
+     */
+    static boolean isPlanet(PlanetResponse planet, String name) {
+        return planet != null && name.equalsIgnoreCase(planet.getName());
+    }
+
+    private Response toResponse(StarshipInformation starship, boolean isPersonOnPlanet) {
+        return Response.builder().starship(starship.getStarship()).crew(starship.getCrewCount()).isLeiaOnPlanet(String.valueOf(isPersonOnPlanet)).build();
+    }
+
+    private InformationRequest withDefaults(InformationRequest request) {
+        if (request == null) {
+            return DEFAULT_REQUEST;
+        }
+        return new InformationRequest(
+                Objects.requireNonNullElse(request.getStarship(), DEATH_START_CONST),
+                Objects.requireNonNullElse(request.getPerson(), LEIA_NAME_CONST),
+                Objects.requireNonNullElse(request.getPlanet(), ALDERAAN_PLANET_CONST));
+    }
+
+    /**
+     * Submits a lookup, turning a rejection by the saturated executor into a failed lookup.
+     */
+    private <T> Future<T> submit(Callable<T> lookup) {
+        try {
+            return swapiExecutor.submit(lookup);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private long deadline() {
+        return System.nanoTime() + swapiProperties.getRequest().getTimeout().toNanos();
+    }
+
+    /**
+     * Waits for a SWAPI lookup until the given deadline, unwrapping its failure.
+     *
+     * @param future   the pending lookup
+     * @param deadline the {@link System#nanoTime()} by which the lookup has to complete
+     * @return the result of the lookup
+     * @throws IOException if the lookup failed, was interrupted or did not complete in time
+     */
+    private <T> T await(Future<T> future, long deadline) throws IOException {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new InterruptedIOException("SWAPI lookup did not complete within " + swapiProperties.getRequest().getTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for SWAPI lookup");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
         }
-        log.info("Response for SWAPI API to get Alderaan information is successful {}", swapiResponse);
-        return swapiResponse.getResults().get(FIRST_RESULT_INDEX).getUrl();
     }
 }
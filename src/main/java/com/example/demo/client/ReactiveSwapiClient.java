@@ -0,0 +1,275 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.mirror.SwapiMirror;
+import com.example.demo.models.SwapiEntity;
+import com.example.demo.models.SwapiPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking client for the search endpoints of the Star Wars API and the entities they link to, used by the
+ * {@code reactive} profile. Behaves like {@link SwapiClient}: pages are decoded by the {@link SwapiPageReader}, answered
+ * from the mirror when it is enabled, cached with stale-while-revalidate and refreshed with conditional GETs, logged
+ * by the {@link SwapiCacheLog}, and concurrent fetches of the same search share one call.
+ * Entities the mirror holds are answered from it as well.
+ * Every call that does reach SWAPI is recorded by {@link SwapiMetrics}, bounded by the call deadline,
+ * and guarded by the circuit breaker and hedging of {@link SwapiResilience}.
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+public class ReactiveSwapiClient {
+    private static final String CACHE_NAME = "swapi.search";
+
+    private final WebClient webClient;
+    private final SwapiPageReader pageReader;
+    private final SwapiMetrics swapiMetrics;
+    private final SwapiMirror swapiMirror;
+    private final SwapiResilience swapiResilience;
+    private final Duration callTimeout;
+    private final SwapiCacheLog cacheLog;
+    private final Duration cacheTtl;
+    private final AsyncLoadingCache<SwapiSearch<?>, SwapiCachedPage> cache;
+    private final Map<SwapiSearch<?>, CompletableFuture<SwapiCachedPage>> inFlightSearches = new ConcurrentHashMap<>();
+
+    public ReactiveSwapiClient(WebClient swapiWebClient, SwapiPageReader pageReader, SwapiProperties swapiProperties,
+                               MeterRegistry meterRegistry, SwapiMetrics swapiMetrics, SwapiMirror swapiMirror,
+                               SwapiResilience swapiResilience, SwapiCacheLog cacheLog) {
+        this.webClient = swapiWebClient;
+        this.pageReader = pageReader;
+        this.swapiMetrics = swapiMetrics;
+        this.swapiMirror = swapiMirror;
+        this.swapiResilience = swapiResilience;
+        this.callTimeout = swapiProperties.getCall().getTimeout();
+        this.cacheLog = cacheLog;
+        SwapiProperties.Cache cacheProperties = swapiProperties.getCache();
+        this.cacheTtl = cacheProperties.getTtl();
+        if (cacheProperties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(cacheProperties.getMaximumSize())
+                    .expireAfter(SwapiCachedPage.expiry(cacheProperties.getTtl().plus(cacheProperties.getMaxStale())))
+                    .recordStats()
+                    .buildAsync(new AsyncCacheLoader<>() {
+                        @Override
+                        public CompletableFuture<SwapiCachedPage> asyncLoad(SwapiSearch<?> search, Executor executor) {
+                            return fetch(search, null).toFuture();
+                        }
+
+                        @Override
+                        public CompletableFuture<SwapiCachedPage> asyncReload(SwapiSearch<?> search, SwapiCachedPage stale, Executor executor) {
+                            return fetch(search, stale).toFuture();
+                        }
+                    });
+            cache.synchronous().putAll(cacheLog.restore());
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Runs a SWAPI search and decodes the returned page, or answers it from the mirror or the cache.
+     *
+     * @param url        the full search URL
+     * @param pageType   the SWAPI page model to decode the response into
+     * @param maxResults the number of results after which the rest of the response is not read
+     * @return the decoded page, with at most maxResults results
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends SwapiPage<?>> Mono<P> search(String url, Class<P> pageType, int maxResults) {
+        if (swapiMirror.isEnabled()) {
+            P mirrored = swapiMirror.search(url, pageType, maxResults);
+            if (mirrored != null) {
+                return Mono.just(mirrored);
+            }
+        }
+        SwapiSearch<P> search = new SwapiSearch<>(url, pageType, maxResults);
+        // A cancelled caller must not cancel the fetch other callers are waiting on
+        return Mono.fromFuture(() -> cache == null ? load(search) : cache.get(search), true).map(cached -> {
+            if (cache != null && cached.remaining(cacheTtl).isNegative()) {
+                // Served stale while it is revalidated in the background, concurrent refreshes of a search are shared
+                cache.synchronous().refresh(search);
+            }
+            return (P) cached.page();
+        });
+    }
+
+    /**
+     * Fetches a single SWAPI entity by its URL, as linked from other entities.
+     * Entities are kept and deduplicated by the {@link ReactiveSwapiSearcher} rather than cached here.
+     *
+     * @param url        the URL of the entity
+     * @param entityType the SWAPI model to decode the response into
+     * @return the decoded entity
+     */
+    public <T extends SwapiEntity> Mono<T> get(String url, Class<T> entityType) {
+        if (swapiMirror.isEnabled()) {
+            T mirrored = swapiMirror.findByUrl(url, entityType);
+            if (mirrored != null) {
+                return Mono.just(mirrored);
+            }
+        }
+        return fetch(new Exchange<>(url, entityType, null, null, (headers, body) -> pageReader.readEntity(body, entityType)));
+    }
+
+    /**
+     * Starts a fetch, or joins the one already running for the same search.
+     */
+    private CompletableFuture<SwapiCachedPage> load(SwapiSearch<?> search) {
+        CompletableFuture<SwapiCachedPage> future = inFlightSearches.computeIfAbsent(search, key -> fetch(key, null).toFuture());
+        future.whenComplete((page, e) -> inFlightSearches.remove(search, future));
+        return future;
+    }
+
+    /**
+     * Fetches a page, conditionally on it having changed if a stale copy is being refreshed.
+     *
+     * @param stale the cached page being refreshed, or null
+     */
+    private Mono<SwapiCachedPage> fetch(SwapiSearch<?> search, SwapiCachedPage stale) {
+        return fetch(new Exchange<>(search.url(), search.pageType(), stale == null ? null : stale.validators(),
+                stale == null ? null : stale.revalidated(),
+                (headers, body) -> new SwapiCachedPage(pageReader.readPage(body, search.pageType(), search.maxResults()), SwapiValidators.from(headers))))
+                .doOnNext(cached -> cacheLog.append(search, cached));
+    }
+
+    /**
+     * Makes the call to SWAPI if the circuit breaker of its route allows it, bounded by the call deadline,
+     * and reports the outcome to the breaker.
+     */
+    private <T> Mono<T> fetch(Exchange<T> exchange) {
+        return Mono.defer(() -> {
+            SwapiResilience.Permit permit = swapiResilience.acquire(exchange.type());
+            Duration hedgeDelay = permit.hedgeDelay();
+            Mono<Attempt<T>> call = hedgeDelay == null
+                    ? attempt(exchange, permit).map(result -> new Attempt<>(result, false))
+                    : hedged(exchange, permit, hedgeDelay);
+            return call
+                    .timeout(callTimeout, Mono.error(() -> new InterruptedIOException("SWAPI call did not complete within " + callTimeout)))
+                    .doOnNext(winner -> permit.succeeded(winner.hedge()))
+                    .doOnError(permit::failed)
+                    .doOnCancel(permit::cancelled)
+                    .map(Attempt::result);
+        });
+    }
+
+    /**
+     * Sends a second attempt when the first outlives the hedging delay, the first attempt to succeed wins.
+     * A hedge is never sent once the first attempt has failed, hedging is not a retry.
+     */
+    private <T> Mono<Attempt<T>> hedged(Exchange<T> exchange, SwapiResilience.Permit permit, Duration hedgeDelay) {
+        AtomicReference<Throwable> primaryFailure = new AtomicReference<>();
+        Mono<Attempt<T>> primary = attempt(exchange, permit)
+                .map(result -> new Attempt<>(result, false))
+                .doOnError(primaryFailure::set);
+        Mono<Attempt<T>> hedge = Mono.delay(hedgeDelay)
+                .filter(tick -> primaryFailure.get() == null)
+                .flatMap(tick -> {
+                    permit.hedgeSent();
+                    return attempt(exchange, permit);
+                })
+                .map(result -> new Attempt<>(result, true));
+        return Mono.firstWithValue(primary, hedge)
+                // Report why the primary failed rather than that no attempt succeeded
+                .onErrorMap(NoSuchElementException.class, e -> primaryFailure.get() != null ? primaryFailure.get() : e);
+    }
+
+    private <T> Mono<T> attempt(Exchange<T> exchange, SwapiResilience.Permit permit) {
+        return Mono.defer(() -> {
+            log.debug("Fetching SWAPI {}", exchange.url());
+            long start = System.nanoTime();
+            SwapiMetrics.Call call = swapiMetrics.start(exchange.type());
+            return webClient.get()
+                    // A URI rather than a template, so every search name does not become its own metrics tag,
+                    // and the search URLs are already encoded
+                    .uri(URI.create(exchange.url()))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .headers(headers -> {
+                        if (exchange.validators() != null) {
+                            exchange.validators().addTo(headers);
+                        }
+                    })
+                    .<T>exchangeToMono(response -> {
+                        call.responded(response.statusCode().value());
+                        if (exchange.unchanged() != null && response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                            return response.releaseBody().thenReturn(exchange.unchanged());
+                        }
+                        if (response.statusCode().isError()) {
+                            return response.createError();
+                        }
+                        HttpHeaders headers = response.headers().asHttpHeaders();
+                        return response.bodyToMono(DataBuffer.class).flatMap(buffer -> decode(buffer, headers, exchange.reader(), call));
+                    })
+                    .switchIfEmpty(Mono.error(() -> new IOException("Empty response for SWAPI call " + exchange.url())))
+                    .doOnNext(result -> {
+                        call.succeeded();
+                        permit.attemptSucceeded(System.nanoTime() - start);
+                    })
+                    .doOnError(call::failed)
+                    .doOnCancel(call::cancelled);
+        });
+    }
+
+    private <T> Mono<T> decode(DataBuffer buffer, HttpHeaders headers, BodyReader<T> reader, SwapiMetrics.Call call) {
+        return Mono.fromCallable(() -> {
+            try (InputStream body = buffer.asInputStream(true)) {
+                return reader.read(headers, body);
+            } catch (JsonProcessingException e) {
+                call.decodeFailed();
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * A page or entity and whether the hedge rather than the primary attempt fetched it.
+     */
+    private record Attempt<T>(T result, boolean hedge) {
+    }
+
+    /**
+     * A call to SWAPI and how its response is decoded.
+     *
+     * @param url        the URL to call
+     * @param type       the SWAPI model the response is decoded into, which tells the route
+     * @param validators the validators to make the call conditional on, or null
+     * @param unchanged  the result when SWAPI answers that nothing changed, or null
+     * @param reader     decodes the response
+     */
+    private record Exchange<T>(String url, Class<?> type, SwapiValidators validators, T unchanged, BodyReader<T> reader) {
+    }
+
+    /**
+     * Decodes a SWAPI response into a page or an entity.
+     */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(HttpHeaders headers, InputStream body) throws IOException;
+    }
+}
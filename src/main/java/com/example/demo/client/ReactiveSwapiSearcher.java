@@ -0,0 +1,99 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.SwapiEntity;
+import com.example.demo.models.SwapiPage;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.example.demo.client.SwapiSearcher.ALL_RESULTS;
+
+/**
+ * Non-blocking variant of {@link SwapiSearcher}, used by the {@code reactive} profile.
+ * The pages after the first are fetched concurrently, and the ones still pending are cancelled once the match is found.
+ * Every entity seen is kept in the {@link SwapiEntityStore}, which answers the links followed by {@link #resolve}.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveSwapiSearcher {
+    private final ReactiveSwapiClient swapiClient;
+    private final SwapiMetrics swapiMetrics;
+    private final SwapiEntityStore entityStore;
+    private final int pageParallelism;
+    private final Map<String, CompletableFuture<SwapiEntity>> inFlightEntities = new ConcurrentHashMap<>();
+
+    public ReactiveSwapiSearcher(ReactiveSwapiClient swapiClient, SwapiMetrics swapiMetrics, SwapiEntityStore entityStore,
+                                 SwapiProperties swapiProperties) {
+        this.swapiClient = swapiClient;
+        this.swapiMetrics = swapiMetrics;
+        this.entityStore = entityStore;
+        this.pageParallelism = swapiProperties.getSearch().getPageParallelism();
+    }
+
+    /**
+     * Searches SWAPI for the entry with the given name.
+     *
+     * @param searchUrl the search URL the encoded name is put in
+     * @param name      the name of the entry
+     * @param pageType  the SWAPI page model to decode the pages into
+     * @param nameOf    reads the name of a result
+     * @return the entry, or empty if no page of the search has one with exactly that name
+     */
+    public <T extends SwapiEntity, P extends SwapiPage<T>> Mono<T> findByName(String searchUrl, String name, Class<P> pageType, Function<T, String> nameOf) {
+        String url = SwapiSearchPages.searchUrl(searchUrl, name);
+        return swapiClient.search(url, pageType, ALL_RESULTS).flatMap(first -> {
+            entityStore.record(first.getResults());
+            T match = SwapiSearchPages.exactMatch(first.getResults(), nameOf, name);
+            if (match != null) {
+                return Mono.just(match);
+            }
+            return Flux.range(2, SwapiSearchPages.pageCount(first) - 1)
+                    .flatMap(page -> swapiClient.search(SwapiSearchPages.pageUrl(url, page), pageType, ALL_RESULTS), pageParallelism)
+                    .doOnNext(page -> entityStore.record(page.getResults()))
+                    .mapNotNull(page -> SwapiSearchPages.exactMatch(page.getResults(), nameOf, name))
+                    .next()
+                    .switchIfEmpty(Mono.<T>fromRunnable(() -> swapiMetrics.unmatched(pageType, first.getResults())));
+        });
+    }
+
+    /**
+     * Follows a link to a SWAPI entity, answering it from the entity store when it is there.
+     * Concurrent lookups of the same missing entity share a single fetch, which stores the entity before it completes.
+     *
+     * @param url        the URL of the entity
+     * @param entityType the SWAPI model of the entity
+     * @return the entity
+     */
+    public <T extends SwapiEntity> Mono<T> resolve(String url, Class<T> entityType) {
+        return Mono.defer(() -> {
+            T entity = entityStore.get(url, entityType);
+            if (entity != null) {
+                return Mono.just(entity);
+            }
+            // A cancelled caller must not cancel the fetch other callers are waiting on
+            return Mono.fromFuture(() -> {
+                CompletableFuture<SwapiEntity> future = inFlightEntities.computeIfAbsent(url, key -> fetch(key, entityType));
+                future.whenComplete((fetched, e) -> inFlightEntities.remove(url, future));
+                return future;
+            }, true).map(entityType::cast);
+        });
+    }
+
+    private CompletableFuture<SwapiEntity> fetch(String url, Class<? extends SwapiEntity> entityType) {
+        SwapiEntity stored = entityStore.peek(url, entityType);
+        if (stored != null) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        return swapiClient.get(url, entityType).<SwapiEntity>map(entity -> {
+            entityStore.record(entity);
+            return entity;
+        }).toFuture();
+    }
+}
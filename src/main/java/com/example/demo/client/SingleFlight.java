@@ -0,0 +1,73 @@
+package com.example.demo.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls for the same key.
+ * The first caller runs the call, and callers arriving while it is in flight wait for
+ * and share its result or its failure.
+ *
+ * @param <K> the type of the key identifying a call
+ * @param <V> the type of the result of a call
+ */
+class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Consumer<K> joined;
+
+    SingleFlight() {
+        this(key -> {
+        });
+    }
+
+    /**
+     * @param joined told of every caller that joins a call already in flight, with the key of the call
+     */
+    SingleFlight(Consumer<K> joined) {
+        this.joined = joined;
+    }
+
+    /**
+     * Runs the call for the key, or joins the call already in flight for it.
+     *
+     * @param key  the key identifying the call
+     * @param call the call to run if none is in flight for the key
+     * @return the result of the call
+     */
+    V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            joined.accept(key);
+            return join(existing);
+        }
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
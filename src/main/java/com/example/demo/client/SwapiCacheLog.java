@@ -0,0 +1,280 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.SwapiPage;
+import com.example.demo.models.SwapiPersonResponse;
+import com.example.demo.models.SwapiPlanetResponse;
+import com.example.demo.models.SwapiStarshipResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only log of the cached SWAPI search results, so a restarted service starts with the cache it had rather than
+ * sending every first lookup to SWAPI.
+ * Every page fetched or revalidated is appended as one JSON line with its search, validators and fetch time, by a
+ * single writer thread so no caller waits on the disk. At startup the log is read back, keeping the latest line of
+ * every search that has not expired, and rewritten down to those; the same compaction then runs on a schedule.
+ * A line that does not parse, as the last one after a crash, is skipped.
+ * <ul>
+ *     <li>{@code swapi.cache.log.failures}: the appends and compactions that failed</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class SwapiCacheLog {
+    private static final Map<String, Class<? extends SwapiPage<?>>> PAGE_TYPES = Map.of(
+            "starships", SwapiStarshipResponse.class,
+            "people", SwapiPersonResponse.class,
+            "planets", SwapiPlanetResponse.class);
+
+    private final ObjectMapper objectMapper;
+    private final SwapiProperties.Cache.Persistence persistence;
+    private final boolean enabled;
+    private final Duration lifetime;
+    private final Counter failures;
+    private ScheduledExecutorService writer;
+    private BufferedWriter out;
+    private int appendedSinceCompaction;
+    private Map<SwapiSearch<?>, SwapiCachedPage> restored = Map.of();
+
+    public SwapiCacheLog(ObjectMapper objectMapper, SwapiProperties swapiProperties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        SwapiProperties.Cache cacheProperties = swapiProperties.getCache();
+        this.persistence = cacheProperties.getPersistence();
+        this.enabled = cacheProperties.isEnabled() && persistence.isEnabled();
+        this.lifetime = cacheProperties.getTtl().plus(cacheProperties.getMaxStale());
+        this.failures = Counter.builder("swapi.cache.log.failures")
+                .description("Appends to and compactions of the SWAPI cache log that failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads and compacts the log, then starts appending to it.
+     *
+     * @throws IOException if the log cannot be read or rewritten
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        restored = compact();
+        log.info("Restored {} cached SWAPI searches from {} in {} ms", restored.size(), persistence.getFile(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("swapi-cache-log-");
+        threadFactory.setDaemon(true);
+        writer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long interval = persistence.getCompactionInterval().toMillis();
+        writer.scheduleWithFixedDelay(this::compactAppended, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compacts the log if anything was appended since it last was. Runs on the writer thread.
+     */
+    private void compactAppended() {
+        if (appendedSinceCompaction > 0) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("Failed to compact SWAPI cache log {}", persistence.getFile(), e);
+                failures.increment();
+            }
+        }
+    }
+
+    /**
+     * Hands over the searches read back at startup, once.
+     *
+     * @return the latest unexpired result of every search in the log
+     */
+    public synchronized Map<SwapiSearch<?>, SwapiCachedPage> restore() {
+        Map<SwapiSearch<?>, SwapiCachedPage> searches = restored;
+        restored = Map.of();
+        return searches;
+    }
+
+    /**
+     * Appends a fetched or revalidated result in the background.
+     */
+    public void append(SwapiSearch<?> search, SwapiCachedPage cached) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    out.write(objectMapper.writeValueAsString(Entry.of(search, cached, objectMapper)));
+                    out.newLine();
+                    out.flush();
+                    appendedSinceCompaction++;
+                } catch (IOException e) {
+                    log.warn("Failed to append {} to SWAPI cache log {}", search.url(), persistence.getFile(), e);
+                    failures.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("SWAPI cache log is closed, not appending {}", search.url());
+        }
+    }
+
+    /**
+     * Waits for the appends made so far to be written.
+     */
+    void awaitWrites() throws InterruptedException, ExecutionException {
+        if (writer != null) {
+            writer.submit(() -> { }).get();
+        }
+    }
+
+    /**
+     * Runs a compaction on the writer thread now, rather than on schedule, and waits for it.
+     */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        if (writer != null) {
+            writer.submit(this::compactAppended).get();
+        }
+    }
+
+    /**
+     * Writes the pending appends and closes the log.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Gave up waiting for the SWAPI cache log {} to be written", persistence.getFile());
+        }
+        out.close();
+    }
+
+    /**
+     * Rewrites the log down to the latest unexpired line of every search, replacing it atomically.
+     * Runs on the writer thread, or before it is started. Whether or not it succeeds, appends carry on
+     * to the log in place afterwards.
+     *
+     * @return the searches left in the log
+     */
+    private Map<SwapiSearch<?>, SwapiCachedPage> compact() throws IOException {
+        Path file = persistence.getFile();
+        Map<SwapiSearch<?>, SwapiCachedPage> live = read(file);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter compacted = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (Map.Entry<SwapiSearch<?>, SwapiCachedPage> search : live.entrySet()) {
+                    compacted.write(objectMapper.writeValueAsString(Entry.of(search.getKey(), search.getValue(), objectMapper)));
+                    compacted.newLine();
+                }
+            }
+            // Closed only once the compacted log is written, as some platforms cannot replace a file open for writing
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appendedSinceCompaction = 0;
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        } finally {
+            if (out == null) {
+                out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Reads the latest unexpired result of every search in a log, later lines replacing earlier ones.
+     *
+     * @param file the log
+     * @return the results by search, in the order they were first logged
+     * @throws IOException if the log cannot be read
+     */
+    Map<SwapiSearch<?>, SwapiCachedPage> read(Path file) throws IOException {
+        Map<SwapiSearch<?>, SwapiCachedPage> searches = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return searches;
+        }
+        int skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Entry entry = objectMapper.readValue(line, Entry.class);
+                    Class<? extends SwapiPage<?>> pageType = PAGE_TYPES.get(entry.route());
+                    if (pageType == null) {
+                        skipped++;
+                        continue;
+                    }
+                    SwapiSearch<?> search = new SwapiSearch<>(entry.url(), pageType, entry.maxResults());
+                    SwapiCachedPage cached = new SwapiCachedPage(objectMapper.treeToValue(entry.page(), pageType),
+                            entry.eTag() == null && entry.lastModified() == null ? null : new SwapiValidators(entry.eTag(), entry.lastModified()),
+                            entry.fetchedAt());
+                    if (cached.remaining(lifetime).isNegative()) {
+                        searches.remove(search);
+                    } else {
+                        searches.put(search, cached);
+                    }
+                } catch (JsonProcessingException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} unreadable lines of SWAPI cache log {}", skipped, file);
+        }
+        return searches;
+    }
+
+    /**
+     * One line of the log.
+     *
+     * @param route        the SWAPI collection searched, which tells the page model
+     * @param url          the full search URL
+     * @param maxResults   the number of results decoded from the response
+     * @param fetchedAt    the epoch millisecond at which SWAPI last confirmed the page
+     * @param eTag         the ETag SWAPI sent with the page, or null
+     * @param lastModified the Last-Modified date SWAPI sent with the page, or null
+     * @param page         the decoded page
+     */
+    record Entry(String route, String url, int maxResults, long fetchedAt, String eTag, String lastModified, JsonNode page) {
+        static Entry of(SwapiSearch<?> search, SwapiCachedPage cached, ObjectMapper objectMapper) {
+            SwapiValidators validators = cached.validators();
+            return new Entry(SwapiMetrics.ROUTES.get(search.pageType()), search.url(), search.maxResults(), cached.fetchedAt(),
+                    validators == null ? null : validators.eTag(), validators == null ? null : validators.lastModified(),
+                    objectMapper.valueToTree(cached.page()));
+        }
+    }
+}
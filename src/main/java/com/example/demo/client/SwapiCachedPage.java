@@ -0,0 +1,57 @@
+package com.example.demo.client;
+
+import com.example.demo.models.SwapiPage;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+/**
+ * A decoded SWAPI page as it is cached, with the validators to revalidate it and when it was fetched.
+ * Freshness and expiry are counted from the fetch time, so a page restored from the {@link SwapiCacheLog} after a
+ * restart is as fresh as it was before.
+ *
+ * @param page       the decoded page
+ * @param validators the validators SWAPI sent with the page, or null if it sent none
+ * @param fetchedAt  the epoch millisecond at which SWAPI last confirmed the page
+ */
+record SwapiCachedPage(SwapiPage<?> page, SwapiValidators validators, long fetchedAt) {
+    SwapiCachedPage(SwapiPage<?> page, SwapiValidators validators) {
+        this(page, validators, System.currentTimeMillis());
+    }
+
+    /**
+     * @return the same page, confirmed unchanged by SWAPI now
+     */
+    SwapiCachedPage revalidated() {
+        return new SwapiCachedPage(page, validators);
+    }
+
+    /**
+     * @return how much of the given lifetime the page has left, which is negative once it is over
+     */
+    Duration remaining(Duration lifetime) {
+        return lifetime.minusMillis(System.currentTimeMillis() - fetchedAt);
+    }
+
+    /**
+     * Expires cached pages a lifetime after they were fetched, rather than after they were put in the cache.
+     */
+    static Expiry<SwapiSearch<?>, SwapiCachedPage> expiry(Duration lifetime) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(SwapiSearch<?> search, SwapiCachedPage cached, long currentTime) {
+                return Math.max(0, cached.remaining(lifetime).toNanos());
+            }
+
+            @Override
+            public long expireAfterUpdate(SwapiSearch<?> search, SwapiCachedPage cached, long currentTime, long currentDuration) {
+                return expireAfterCreate(search, cached, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(SwapiSearch<?> search, SwapiCachedPage cached, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
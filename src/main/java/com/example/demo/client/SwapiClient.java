@@ -0,0 +1,322 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.mirror.SwapiMirror;
+import com.example.demo.models.SwapiEntity;
+import com.example.demo.models.SwapiPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Client for the search endpoints of the Star Wars API, and for the single entities they link to by URL.
+ * Response bodies are decoded straight from the HTTP stream into the typed SWAPI models by the {@link SwapiPageReader}.
+ * Decoded pages are cached by search URL, and served stale while they are refreshed in the background.
+ * Cached pages are also logged by the {@link SwapiCacheLog}, and the cache starts with the pages restored from it.
+ * A refresh is a conditional GET carrying the validators SWAPI sent with the page, so an unchanged page costs a 304
+ * rather than its full body.
+ * Concurrent fetches of the same search share a single upstream call.
+ * When the local SWAPI mirror is enabled, searches and links it can answer never reach SWAPI.
+ * Every call that does reach SWAPI is recorded by {@link SwapiMetrics}, bounded by the call deadline,
+ * and guarded by the circuit breaker and hedging of {@link SwapiResilience}.
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class SwapiClient {
+    private static final String CACHE_NAME = "swapi.search";
+
+    private final RestTemplate restTemplate;
+    private final SwapiPageReader pageReader;
+    private final SwapiMetrics swapiMetrics;
+    private final SwapiMirror swapiMirror;
+    private final SwapiResilience swapiResilience;
+    private final ExecutorService callExecutor;
+    private final Duration callTimeout;
+    private final SwapiCacheLog cacheLog;
+    private final Duration cacheTtl;
+    private final LoadingCache<SwapiSearch<?>, SwapiCachedPage> cache;
+    private final SingleFlight<SwapiSearch<?>, SwapiCachedPage> inFlightSearches;
+
+    public SwapiClient(RestTemplate restTemplate, SwapiPageReader pageReader, SwapiProperties swapiProperties,
+                       ExecutorService swapiExecutor, ExecutorService swapiCallExecutor, MeterRegistry meterRegistry,
+                       SwapiMetrics swapiMetrics, SwapiMirror swapiMirror, SwapiResilience swapiResilience,
+                       SwapiCacheLog cacheLog) {
+        this.restTemplate = restTemplate;
+        this.pageReader = pageReader;
+        this.swapiMetrics = swapiMetrics;
+        this.swapiMirror = swapiMirror;
+        this.swapiResilience = swapiResilience;
+        this.callExecutor = swapiCallExecutor;
+        this.callTimeout = swapiProperties.getCall().getTimeout();
+        this.cacheLog = cacheLog;
+        this.inFlightSearches = new SingleFlight<>(search -> swapiMetrics.joined(search.pageType()));
+        SwapiProperties.Cache cacheProperties = swapiProperties.getCache();
+        this.cacheTtl = cacheProperties.getTtl();
+        if (cacheProperties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(cacheProperties.getMaximumSize())
+                    .expireAfter(SwapiCachedPage.expiry(cacheProperties.getTtl().plus(cacheProperties.getMaxStale())))
+                    .executor(swapiExecutor)
+                    .recordStats()
+                    .build(new CacheLoader<>() {
+                        @Override
+                        public SwapiCachedPage load(SwapiSearch<?> search) {
+                            return SwapiClient.this.load(search, null);
+                        }
+
+                        @Override
+                        public SwapiCachedPage reload(SwapiSearch<?> search, SwapiCachedPage stale) {
+                            return SwapiClient.this.load(search, stale);
+                        }
+                    });
+            cache.putAll(cacheLog.restore());
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Runs a SWAPI search and decodes the returned page, or answers it from the mirror or the cache.
+     *
+     * @param url        the full search URL
+     * @param pageType   the SWAPI page model to decode the response into
+     * @param maxResults the number of results after which the rest of the response is not read
+     * @return the decoded page, with at most maxResults results
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends SwapiPage<?>> P search(String url, Class<P> pageType, int maxResults) {
+        if (swapiMirror.isEnabled()) {
+            P mirrored = swapiMirror.search(url, pageType, maxResults);
+            if (mirrored != null) {
+                return mirrored;
+            }
+        }
+        SwapiSearch<P> search = new SwapiSearch<>(url, pageType, maxResults);
+        if (cache == null) {
+            return (P) load(search, null).page();
+        }
+        SwapiCachedPage cached = cache.get(search);
+        if (cached.remaining(cacheTtl).isNegative()) {
+            // Served stale while it is revalidated in the background, concurrent refreshes of a search are shared
+            cache.refresh(search);
+        }
+        return (P) cached.page();
+    }
+
+    /**
+     * Fetches a single SWAPI entity by its URL, as linked from other entities.
+     * Entities are kept and deduplicated by the {@link SwapiSearcher} rather than cached here.
+     *
+     * @param url        the URL of the entity
+     * @param entityType the SWAPI model to decode the response into
+     * @return the decoded entity
+     */
+    public <T extends SwapiEntity> T get(String url, Class<T> entityType) {
+        if (swapiMirror.isEnabled()) {
+            T mirrored = swapiMirror.findByUrl(url, entityType);
+            if (mirrored != null) {
+                return mirrored;
+            }
+        }
+        return fetch(new Exchange<>(url, entityType, null, null, (headers, body) -> pageReader.readEntity(body, entityType)));
+    }
+
+    /**
+     * Fetches a page, conditionally on it having changed if a stale copy is being refreshed.
+     *
+     * @param stale the cached page being refreshed, or null
+     */
+    private SwapiCachedPage load(SwapiSearch<?> search, SwapiCachedPage stale) {
+        return inFlightSearches.execute(search, () -> {
+            SwapiCachedPage cached = fetch(new Exchange<>(search.url(), search.pageType(),
+                    stale == null ? null : stale.validators(), stale == null ? null : stale.revalidated(),
+                    (headers, body) -> new SwapiCachedPage(pageReader.readPage(body, search.pageType(), search.maxResults()), SwapiValidators.from(headers))));
+            cacheLog.append(search, cached);
+            return cached;
+        });
+    }
+
+    /**
+     * Makes the call to SWAPI if the circuit breaker of its route allows it, and reports the outcome to the breaker.
+     */
+    private <T> T fetch(Exchange<T> exchange) {
+        SwapiResilience.Permit permit = swapiResilience.acquire(exchange.type());
+        try {
+            return call(exchange, permit);
+        } catch (RejectedExecutionException e) {
+            // Saturated here rather than failing upstream
+            permit.cancelled();
+            throw e;
+        } catch (InterruptedException e) {
+            permit.cancelled();
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for SWAPI call " + exchange.url()));
+        } catch (IOException e) {
+            permit.failed(e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            permit.failed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the call on the call executor and waits for it until the call deadline.
+     * With hedging on, a second attempt is sent when the first outlives the hedging delay, and the first attempt
+     * to succeed wins. A hedge is never sent once the first attempt has failed, hedging is not a retry.
+     * An attempt that ends once the call is settled, such as the cancelled loser of a hedge, is recorded as cancelled.
+     */
+    private <T> T call(Exchange<T> exchange, SwapiResilience.Permit permit) throws IOException, InterruptedException {
+        CompletionService<T> attempts = new ExecutorCompletionService<>(callExecutor);
+        AtomicBoolean settled = new AtomicBoolean();
+        Callable<T> attempt = () -> attempt(exchange, permit, settled);
+        long deadline = System.nanoTime() + callTimeout.toNanos();
+        Duration hedgeDelay = permit.hedgeDelay();
+        long hedgeAt = hedgeDelay == null ? deadline : System.nanoTime() + hedgeDelay.toNanos();
+        List<Future<T>> started = new ArrayList<>(2);
+        try {
+            started.add(attempts.submit(attempt));
+            Future<T> hedge = null;
+            int running = 1;
+            while (true) {
+                boolean hedgePending = hedge == null && hedgeAt < deadline;
+                Future<T> done = attempts.poll((hedgePending ? hedgeAt : deadline) - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null && hedgePending) {
+                    hedgeAt = deadline;
+                    try {
+                        hedge = attempts.submit(attempt);
+                    } catch (RejectedExecutionException e) {
+                        log.debug("No thread left to hedge SWAPI call {}", exchange.url());
+                        continue;
+                    }
+                    started.add(hedge);
+                    permit.hedgeSent();
+                    running++;
+                    continue;
+                }
+                if (done == null) {
+                    throw new InterruptedIOException("SWAPI call did not complete within " + callTimeout);
+                }
+                running--;
+                try {
+                    T result = done.get();
+                    permit.succeeded(done == hedge);
+                    return result;
+                } catch (ExecutionException e) {
+                    if (running == 0) {
+                        throw unwrap(e);
+                    }
+                }
+            }
+        } finally {
+            settled.set(true);
+            started.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) throws IOException {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        throw new IOException(e.getCause());
+    }
+
+    /**
+     * @param settled whether an attempt has won or the call has been given up, set by the winning attempt
+     */
+    private <T> T attempt(Exchange<T> exchange, SwapiResilience.Permit permit, AtomicBoolean settled) {
+        log.debug("Fetching SWAPI {}", exchange.url());
+        long start = System.nanoTime();
+        SwapiMetrics.Call call = swapiMetrics.start(exchange.type());
+        try {
+            // A URI rather than a template, the search URLs are already encoded
+            T result = restTemplate.execute(URI.create(exchange.url()), HttpMethod.GET,
+                    request -> {
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                        if (exchange.validators() != null) {
+                            exchange.validators().addTo(request.getHeaders());
+                        }
+                    },
+                    response -> {
+                        call.responded(response.getStatusCode().value());
+                        if (exchange.unchanged() != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                            return exchange.unchanged();
+                        }
+                        try {
+                            return exchange.reader().read(response.getHeaders(), response.getBody());
+                        } catch (JsonProcessingException e) {
+                            call.decodeFailed();
+                            throw e;
+                        }
+                    });
+            if (settled.compareAndSet(false, true)) {
+                call.succeeded();
+                permit.attemptSucceeded(System.nanoTime() - start);
+            } else {
+                call.cancelled();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (settled.get()) {
+                call.cancelled();
+            } else {
+                call.failed(e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A call to SWAPI and how its response is decoded.
+     *
+     * @param url        the URL to call
+     * @param type       the SWAPI model the response is decoded into, which tells the route
+     * @param validators the validators to make the call conditional on, or null
+     * @param unchanged  the result when SWAPI answers that nothing changed, or null
+     * @param reader     decodes the response
+     */
+    private record Exchange<T>(String url, Class<?> type, SwapiValidators validators, T unchanged, BodyReader<T> reader) {
+    }
+
+    /**
+     * Decodes a SWAPI response into a page or an entity.
+     */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(HttpHeaders headers, InputStream body) throws IOException;
+    }
+}
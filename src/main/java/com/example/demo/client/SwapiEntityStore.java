@@ -0,0 +1,86 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.SwapiEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Every SWAPI person, planet and starship seen in a search or fetched by URL, keyed by its canonical URL
+ * ({@link SwapiEntity#canonicalUrl}).
+ * SWAPI entities link to each other by URL, such as the homeworld of a person, so relations are answered from here
+ * and only the entities missing from the store cost a call to SWAPI.
+ * The store is bounded in size and age, and its hit ratio is published:
+ * <ul>
+ *     <li>{@code cache.gets}, {@code cache.evictions} and {@code cache.size} for the {@code swapi.entities} cache</li>
+ *     <li>{@code swapi.entities.hit.ratio}: the share of relation lookups answered from the store</li>
+ * </ul>
+ */
+@Component
+public class SwapiEntityStore {
+    private static final String CACHE_NAME = "swapi.entities";
+
+    private final Cache<String, SwapiEntity> entities;
+
+    public SwapiEntityStore(SwapiProperties swapiProperties, MeterRegistry meterRegistry) {
+        SwapiProperties.Entities entityProperties = swapiProperties.getEntities();
+        this.entities = Caffeine.newBuilder()
+                .maximumSize(entityProperties.getMaximumSize())
+                .expireAfterWrite(entityProperties.getTtl())
+                // Evictions are cheap, running them on the writing thread keeps the store within its bound
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entities, CACHE_NAME);
+        Gauge.builder("swapi.entities.hit.ratio", entities, cache -> cache.stats().hitRate())
+                .description("Share of the SWAPI relation lookups answered from the entity store")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores the entities that carry a URL, replacing older copies.
+     *
+     * @param results the results of a SWAPI search, or null
+     */
+    public void record(Collection<? extends SwapiEntity> results) {
+        if (results != null) {
+            results.forEach(this::record);
+        }
+    }
+
+    public void record(SwapiEntity entity) {
+        if (entity != null && entity.getUrl() != null) {
+            entities.put(SwapiEntity.canonicalUrl(entity.getUrl()), entity);
+        }
+    }
+
+    /**
+     * Looks an entity up by URL, counting a hit or a miss.
+     *
+     * @param url        the URL of the entity, in any of the forms SWAPI links with
+     * @param entityType the SWAPI model of the entity
+     * @return the entity, or null if it is not stored or is not of that type
+     */
+    public <T extends SwapiEntity> T get(String url, Class<T> entityType) {
+        SwapiEntity entity = entities.getIfPresent(SwapiEntity.canonicalUrl(url));
+        return entityType.isInstance(entity) ? entityType.cast(entity) : null;
+    }
+
+    /**
+     * Looks an entity up without counting a hit or a miss, to check again for an entity just found missing.
+     */
+    <T extends SwapiEntity> T peek(String url, Class<T> entityType) {
+        SwapiEntity entity = entities.asMap().get(SwapiEntity.canonicalUrl(url));
+        return entityType.isInstance(entity) ? entityType.cast(entity) : null;
+    }
+
+    public double hitRatio() {
+        return entities.stats().hitRate();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Person;
+import com.example.demo.models.PlanetResponse;
+import com.example.demo.models.StarshipResponse;
+import com.example.demo.models.SwapiPersonResponse;
+import com.example.demo.models.SwapiPlanetResponse;
+import com.example.demo.models.SwapiStarshipResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of the calls made to SWAPI, tagged with the route: starships, people or planets,
+ * whether the call was a search or the fetch of a single entity by URL.
+ * <ul>
+ *     <li>{@code swapi.requests}: latency histogram of every call, tagged with the status and outcome,
+ *     CANCELLED for the losing attempt of a hedged call</li>
+ *     <li>{@code swapi.decode.failures}: responses that could not be decoded</li>
+ *     <li>{@code swapi.searches.unmatched}: searches that did not find exactly one match, tagged with none or ambiguous</li>
+ *     <li>{@code swapi.searches.joined}: searches answered by joining the same search already in flight</li>
+ * </ul>
+ * Meters are registered once per tag combination, so recording only costs a map lookup.
+ */
+@Component
+public class SwapiMetrics {
+    static final String IO_ERROR = "IO_ERROR";
+    static final String CANCELLED = "CANCELLED";
+    static final String NO_STATUS = "none";
+
+    static final Map<Class<?>, String> ROUTES = Map.of(
+            SwapiStarshipResponse.class, "starships",
+            SwapiPersonResponse.class, "people",
+            SwapiPlanetResponse.class, "planets",
+            StarshipResponse.class, "starships",
+            Person.class, "people",
+            PlanetResponse.class, "planets");
+    private static final Duration MINIMUM_EXPECTED_LATENCY = Duration.ofMillis(1);
+
+    private final MeterRegistry meterRegistry;
+    private final Duration maximumExpectedLatency;
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> counters = new ConcurrentHashMap<>();
+
+    public SwapiMetrics(MeterRegistry meterRegistry, SwapiProperties swapiProperties) {
+        this.meterRegistry = meterRegistry;
+        this.maximumExpectedLatency = swapiProperties.getRequest().getTimeout();
+    }
+
+    /**
+     * Starts timing a call to SWAPI.
+     *
+     * @param pageType the SWAPI page model the call is decoded into, which tells the route
+     * @return the call to report the response and the outcome on
+     */
+    public Call start(Class<?> pageType) {
+        return new Call(route(pageType), Timer.start(meterRegistry));
+    }
+
+    /**
+     * Counts a search that did not find exactly one match.
+     *
+     * @param pageType the SWAPI page model of the search
+     * @param results  the results of the search
+     */
+    public void unmatched(Class<?> pageType, List<?> results) {
+        String reason = results == null || results.isEmpty() ? "none" : "ambiguous";
+        counter("swapi.searches.unmatched", "Searches that did not find exactly one match", "route", route(pageType), "reason", reason).increment();
+    }
+
+    /**
+     * Counts a search that joined the same search already in flight instead of calling SWAPI.
+     *
+     * @param pageType the SWAPI page model of the search
+     */
+    public void joined(Class<?> pageType) {
+        counter("swapi.searches.joined", "Searches answered by joining the same search already in flight", "route", route(pageType)).increment();
+    }
+
+    static String route(Class<?> pageType) {
+        return ROUTES.getOrDefault(pageType, pageType.getSimpleName());
+    }
+
+    private Counter counter(String name, String description, String... tags) {
+        List<String> key = new ArrayList<>(tags.length + 1);
+        key.add(name);
+        key.addAll(Arrays.asList(tags));
+        return counters.computeIfAbsent(key, missing -> Counter.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry));
+    }
+
+    private Timer timer(String route, String status, String outcome) {
+        return timers.computeIfAbsent(List.of(route, status, outcome), key -> Timer.builder("swapi.requests")
+                .description("Calls to SWAPI")
+                .tag("route", route)
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMUM_EXPECTED_LATENCY)
+                .maximumExpectedValue(maximumExpectedLatency)
+                .register(meterRegistry));
+    }
+
+    /**
+     * A call to SWAPI being timed. Not thread-safe, as a call is handled by one thread at a time.
+     */
+    public class Call {
+        private final String route;
+        private final Timer.Sample sample;
+        private int status;
+        private boolean decodeFailed;
+
+        private Call(String route, Timer.Sample sample) {
+            this.route = route;
+            this.sample = sample;
+        }
+
+        /**
+         * Notes the status of the response, before its body is decoded.
+         */
+        public void responded(int status) {
+            this.status = status;
+        }
+
+        /**
+         * Notes that the body of the response could not be decoded.
+         */
+        public void decodeFailed() {
+            this.decodeFailed = true;
+            counter("swapi.decode.failures", "SWAPI responses that could not be decoded", "route", route).increment();
+        }
+
+        public void succeeded() {
+            sample.stop(timer(route, statusTag(), "SUCCESS"));
+        }
+
+        /**
+         * Notes that the call was abandoned, such as the losing attempt of a hedged call, rather than failed.
+         */
+        public void cancelled() {
+            sample.stop(timer(route, statusTag(), CANCELLED));
+        }
+
+        public void failed(Throwable e) {
+            if (e instanceof RestClientResponseException responseException) {
+                status = responseException.getStatusCode().value();
+            } else if (e instanceof WebClientResponseException responseException) {
+                status = responseException.getStatusCode().value();
+            }
+            String outcome;
+            if (decodeFailed) {
+                outcome = "DECODE_ERROR";
+            } else if (status >= 500) {
+                outcome = "SERVER_ERROR";
+            } else if (status >= 400) {
+                outcome = "CLIENT_ERROR";
+            } else {
+                outcome = IO_ERROR;
+            }
+            sample.stop(timer(route, statusTag(), outcome));
+        }
+
+        private String statusTag() {
+            return status == 0 ? NO_STATUS : String.valueOf(status);
+        }
+    }
+}
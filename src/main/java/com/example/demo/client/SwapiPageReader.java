@@ -0,0 +1,88 @@
+package com.example.demo.client;
+
+import com.example.demo.models.SwapiPage;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes SWAPI response bodies straight from the stream into the typed SWAPI page and entity models.
+ */
+@Component
+@RequiredArgsConstructor
+public class SwapiPageReader {
+    private static final String COUNT_FIELD = "count";
+    private static final String NEXT_FIELD = "next";
+    private static final String RESULTS_FIELD = "results";
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Class<?>, Class<?>> resultTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Decodes a SWAPI page in a single streaming pass.
+     * Unknown fields are skipped without being materialized, and reading stops as soon as
+     * maxResults entries have been decoded or the results array ends.
+     * SWAPI sends the count and next fields ahead of the results, so they are decoded along the way.
+     *
+     * @param body       the JSON response body
+     * @param pageType   the SWAPI page model to decode the response into
+     * @param maxResults the number of results after which the rest of the body is not read
+     * @return the decoded page
+     * @throws IOException if the body is not a SWAPI page
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends SwapiPage<?>> P readPage(InputStream body, Class<P> pageType, int maxResults) throws IOException {
+        Class<?> resultType = resultTypes.computeIfAbsent(pageType,
+                type -> ResolvableType.forClass(type).as(SwapiPage.class).resolveGeneric(0));
+        P page = BeanUtils.instantiateClass(pageType);
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw JsonMappingException.from(parser, "Expected a SWAPI page object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (RESULTS_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+                    List<Object> results = new ArrayList<>();
+                    while (results.size() < maxResults && parser.nextToken() == JsonToken.START_OBJECT) {
+                        results.add(objectMapper.readValue(parser, resultType));
+                    }
+                    ((SwapiPage<Object>) page).setResults(results);
+                    return page;
+                }
+                if (COUNT_FIELD.equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    page.setCount(parser.getIntValue());
+                } else if (NEXT_FIELD.equals(field) && value == JsonToken.VALUE_STRING) {
+                    page.setNext(parser.getText());
+                }
+                parser.skipChildren();
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Decodes a single SWAPI entity, as returned when following its URL.
+     *
+     * @param body       the JSON response body
+     * @param entityType the SWAPI model to decode the response into
+     * @return the decoded entity
+     * @throws IOException if the body is not a SWAPI entity
+     */
+    public <T> T readEntity(InputStream body, Class<T> entityType) throws IOException {
+        return objectMapper.readValue(body, entityType);
+    }
+}
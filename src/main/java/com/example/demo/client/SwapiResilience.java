@@ -0,0 +1,214 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breakers and hedging of the calls made to SWAPI, kept per route: starships, people or planets.
+ * A breaker opens once too many recent calls on its route failed, and rejects calls until it lets a few probes through.
+ * When hedging is enabled, a call still running after the recent latency percentile of its route gets a duplicate,
+ * and whichever attempt answers first wins.
+ * <ul>
+ *     <li>{@code swapi.circuit.state}: 0 when closed, 1 when open, 2 when half open, 3 when disabled</li>
+ *     <li>{@code swapi.circuit.transitions}: state changes, tagged with the from and to states</li>
+ *     <li>{@code swapi.circuit.rejections}: calls failed fast by an open breaker</li>
+ *     <li>{@code swapi.hedge.latency}: latency of successful attempts, whose percentile is the hedging delay</li>
+ *     <li>{@code swapi.hedges}: hedged calls, tagged with the winner: primary, hedge or none</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class SwapiResilience {
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+    private final SwapiProperties.Breaker breakerProperties;
+    private final SwapiProperties.Hedge hedgeProperties;
+    private final CircuitBreakerConfig breakerConfig;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    public SwapiResilience(MeterRegistry meterRegistry, SwapiProperties swapiProperties) {
+        this.meterRegistry = meterRegistry;
+        this.breakerProperties = swapiProperties.getBreaker();
+        this.hedgeProperties = swapiProperties.getHedge();
+        this.breakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(breakerProperties.getFailureRateThreshold())
+                .slidingWindowSize(breakerProperties.getSlidingWindowSize())
+                .minimumNumberOfCalls(breakerProperties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(breakerProperties.getOpenDuration())
+                .permittedNumberOfCallsInHalfOpenState(breakerProperties.getHalfOpenCalls())
+                .build();
+        // Registered up front, so the breaker states are published before the first call
+        SwapiMetrics.ROUTES.values().forEach(this::route);
+    }
+
+    /**
+     * Asks the breaker of the route for permission to call SWAPI.
+     *
+     * @param pageType the SWAPI page model the call is decoded into, which tells the route
+     * @return the permit to report the outcome of the call on
+     * @throws CallNotPermittedException if the breaker of the route is open
+     */
+    public Permit acquire(Class<?> pageType) {
+        Route route = route(SwapiMetrics.route(pageType));
+        if (!route.breaker.tryAcquirePermission()) {
+            route.rejections.increment();
+            throw CallNotPermittedException.createCallNotPermittedException(route.breaker);
+        }
+        return new Permit(route);
+    }
+
+    /**
+     * Looks up the breaker of a route, for inspection.
+     *
+     * @param pageType the SWAPI page model of the route
+     * @return the circuit breaker of the route
+     */
+    public CircuitBreaker circuitBreaker(Class<?> pageType) {
+        return route(SwapiMetrics.route(pageType)).breaker;
+    }
+
+    private Route route(String name) {
+        return routes.computeIfAbsent(name, Route::new);
+    }
+
+    private class Route {
+        private final String name;
+        private final CircuitBreaker breaker;
+        private final Counter rejections;
+        private final Timer latency;
+        private volatile long hedgeDelayNanos;
+        private volatile long hedgeDelayComputedAt;
+
+        private Route(String name) {
+            this.name = name;
+            this.breaker = CircuitBreaker.of(name, breakerConfig);
+            if (!breakerProperties.isEnabled()) {
+                breaker.transitionToDisabledState();
+            }
+            breaker.getEventPublisher().onStateTransition(event -> {
+                CircuitBreaker.StateTransition transition = event.getStateTransition();
+                log.warn("SWAPI {} circuit breaker went from {} to {}", name, transition.getFromState(), transition.getToState());
+                Counter.builder("swapi.circuit.transitions")
+                        .description("State changes of the SWAPI circuit breakers")
+                        .tag("route", name)
+                        .tag("from", transition.getFromState().name())
+                        .tag("to", transition.getToState().name())
+                        .register(meterRegistry)
+                        .increment();
+            });
+            Gauge.builder("swapi.circuit.state", breaker, b -> b.getState().getOrder())
+                    .description("State of the SWAPI circuit breaker: 0 closed, 1 open, 2 half open, 3 disabled")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            this.rejections = Counter.builder("swapi.circuit.rejections")
+                    .description("SWAPI calls failed fast by an open circuit breaker")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            this.latency = !hedgeProperties.isEnabled() ? null : Timer.builder("swapi.hedge.latency")
+                    .description("Latency of successful SWAPI attempts, whose percentile is the hedging delay")
+                    .tag("route", name)
+                    .publishPercentiles(hedgeProperties.getPercentile())
+                    .register(meterRegistry);
+            this.hedgeDelayComputedAt = System.nanoTime() - HEDGE_DELAY_REFRESH_NANOS - 1;
+        }
+
+        /**
+         * The recent latency percentile of the route, recomputed at most once a second as taking a snapshot is not free.
+         */
+        private long hedgeDelayNanos() {
+            long now = System.nanoTime();
+            if (now - hedgeDelayComputedAt > HEDGE_DELAY_REFRESH_NANOS) {
+                ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+                hedgeDelayNanos = percentiles.length == 0 ? 0 : (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+                hedgeDelayComputedAt = now;
+            }
+            return hedgeDelayNanos;
+        }
+
+        private void hedged(String winner) {
+            Counter.builder("swapi.hedges")
+                    .description("Hedged SWAPI calls by the attempt that answered first")
+                    .tag("route", name)
+                    .tag("winner", winner)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /**
+     * Permission to make one SWAPI call, hedge included. Exactly one of the outcome methods has to be called.
+     */
+    public class Permit {
+        private final Route route;
+        private final long start = System.nanoTime();
+        private volatile boolean hedgeSent;
+
+        private Permit(Route route) {
+            this.route = route;
+        }
+
+        /**
+         * @return how long to wait for the primary attempt before sending a hedge,
+         * or null if hedging is disabled or the route has no recent latency yet
+         */
+        public Duration hedgeDelay() {
+            if (route.latency == null) {
+                return null;
+            }
+            long delay = route.hedgeDelayNanos();
+            return delay == 0 ? null : Duration.ofNanos(Math.max(delay, hedgeProperties.getMinDelay().toNanos()));
+        }
+
+        /**
+         * Records the latency of an attempt that succeeded, to compute the hedging delay from.
+         */
+        public void attemptSucceeded(long latencyNanos) {
+            if (route.latency != null) {
+                route.latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        public void hedgeSent() {
+            this.hedgeSent = true;
+        }
+
+        /**
+         * @param byHedge whether the hedge rather than the primary attempt answered
+         */
+        public void succeeded(boolean byHedge) {
+            route.breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (hedgeSent) {
+                route.hedged(byHedge ? "hedge" : "primary");
+            }
+        }
+
+        public void failed(Throwable e) {
+            route.breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            if (hedgeSent) {
+                route.hedged("none");
+            }
+        }
+
+        /**
+         * Gives the permission back without an outcome, as when the caller gave up or the call could not be started.
+         */
+        public void cancelled() {
+            route.breaker.releasePermission();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.client;
+
+import com.example.demo.models.SwapiPage;
+
+/**
+ * Identifies a SWAPI search by its full URL and how its response is decoded.
+ *
+ * @param url        the full search URL
+ * @param pageType   the SWAPI page model the response is decoded into
+ * @param maxResults the number of results decoded from the response
+ */
+record SwapiSearch<P extends SwapiPage<?>>(String url, Class<P> pageType, int maxResults) {
+}
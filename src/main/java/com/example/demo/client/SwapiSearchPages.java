@@ -0,0 +1,67 @@
+package com.example.demo.client;
+
+import com.example.demo.models.SwapiPage;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The paging rules of SWAPI searches shared by the blocking and reactive searchers.
+ */
+final class SwapiSearchPages {
+    private static final String SEARCH_PARAM = "search";
+    private static final String PAGE_QUERY = "&page=";
+
+    private SwapiSearchPages() {
+    }
+
+    /**
+     * Tells how many pages a search has from its first page, as SWAPI pages are all as full as the first one but the last.
+     *
+     * @param first the first page of the search
+     * @return the number of pages, 1 if the first page is the only one or the count is missing
+     */
+    static int pageCount(SwapiPage<?> first) {
+        if (first.getNext() == null || first.getCount() == null || first.getResults() == null || first.getResults().isEmpty()) {
+            return 1;
+        }
+        int pageSize = first.getResults().size();
+        return (first.getCount() + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Puts a name in the query of a search URL. The name is encoded strictly, so characters such as {, &, % or + stay
+     * part of the name rather than being read as a URI template, more query parameters or an escape.
+     *
+     * @param searchUrl the search URL, ending in the search parameter
+     * @param name      the name to search for
+     * @return the encoded URL of the first page of the search
+     */
+    static String searchUrl(String searchUrl, String name) {
+        return UriComponentsBuilder.fromHttpUrl(searchUrl)
+                .replaceQueryParam(SEARCH_PARAM, "{name}")
+                .encode()
+                .buildAndExpand(name)
+                .toUriString();
+    }
+
+    static String pageUrl(String searchUrl, int page) {
+        return searchUrl + PAGE_QUERY + page;
+    }
+
+    /**
+     * @return the first result named exactly as the searched name, ignoring case, or null if there is none
+     */
+    static <T> T exactMatch(List<T> results, Function<T, String> nameOf, String name) {
+        if (results == null) {
+            return null;
+        }
+        for (T result : results) {
+            if (name.equalsIgnoreCase(nameOf.apply(result))) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.SwapiEntity;
+import com.example.demo.models.SwapiPage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Finds SWAPI entries by exact name across all the pages of a search.
+ * SWAPI matches names by substring, so the results are filtered down to the entry named exactly as searched, ignoring case.
+ * When the first page has no exact match, the count it carries tells the URLs of the other pages,
+ * which are then fetched in parallel until one of them has the match.
+ * Searches that find no exact match are counted by {@link SwapiMetrics}.
+ * Every entity seen in a search is kept in the {@link SwapiEntityStore}, which answers the URLs entities link to,
+ * so following a relation only calls SWAPI for the entities missing from the store.
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class SwapiSearcher {
+    /**
+     * Pages are decoded whole, as the exact match can be anywhere in them.
+     */
+    public static final int ALL_RESULTS = Integer.MAX_VALUE;
+
+    private final SwapiClient swapiClient;
+    private final ExecutorService swapiExecutor;
+    private final SwapiMetrics swapiMetrics;
+    private final SwapiEntityStore entityStore;
+    private final int pageParallelism;
+    private final SingleFlight<String, SwapiEntity> inFlightEntities = new SingleFlight<>();
+
+    public SwapiSearcher(SwapiClient swapiClient, ExecutorService swapiExecutor, SwapiMetrics swapiMetrics,
+                         SwapiEntityStore entityStore, SwapiProperties swapiProperties) {
+        this.swapiClient = swapiClient;
+        this.swapiExecutor = swapiExecutor;
+        this.swapiMetrics = swapiMetrics;
+        this.entityStore = entityStore;
+        this.pageParallelism = swapiProperties.getSearch().getPageParallelism();
+    }
+
+    /**
+     * Searches SWAPI for the entry with the given name.
+     *
+     * @param searchUrl the search URL the encoded name is put in
+     * @param name      the name of the entry
+     * @param pageType  the SWAPI page model to decode the pages into
+     * @param nameOf    reads the name of a result
+     * @return the entry, or null if no page of the search has one with exactly that name
+     */
+    public <T extends SwapiEntity, P extends SwapiPage<T>> T findByName(String searchUrl, String name, Class<P> pageType, Function<T, String> nameOf) {
+        String url = SwapiSearchPages.searchUrl(searchUrl, name);
+        P first = swapiClient.search(url, pageType, ALL_RESULTS);
+        entityStore.record(first.getResults());
+        T match = SwapiSearchPages.exactMatch(first.getResults(), nameOf, name);
+        int pages = SwapiSearchPages.pageCount(first);
+        if (match == null && pages > 1) {
+            match = searchPages(url, pages, pageType, nameOf, name);
+        }
+        if (match == null) {
+            swapiMetrics.unmatched(pageType, first.getResults());
+        }
+        return match;
+    }
+
+    /**
+     * Follows a link to a SWAPI entity, answering it from the entity store when it is there.
+     * Concurrent lookups of the same missing entity share a single fetch.
+     *
+     * @param url        the URL of the entity
+     * @param entityType the SWAPI model of the entity
+     * @return the entity
+     */
+    public <T extends SwapiEntity> T resolve(String url, Class<T> entityType) {
+        T entity = entityStore.get(url, entityType);
+        return entity != null ? entity : fetch(url, entityType);
+    }
+
+    /**
+     * Follows many links at once. The entities missing from the entity store are fetched in parallel,
+     * with up to pageParallelism calls at a time. A link that cannot be followed fails on its own,
+     * the others are still resolved.
+     *
+     * @param urls       the URLs of the entities
+     * @param entityType the SWAPI model of the entities
+     * @return the entities by the URL they were asked with, each complete, or failed with why it could not be fetched
+     */
+    public <T extends SwapiEntity> Map<String, Future<T>> resolveAll(Collection<String> urls, Class<T> entityType) {
+        Map<String, Future<T>> entities = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<CompletableFuture<T>> fetched = new ArrayList<>();
+        for (String url : new LinkedHashSet<>(urls)) {
+            T entity = entityStore.get(url, entityType);
+            if (entity != null) {
+                entities.put(url, CompletableFuture.completedFuture(entity));
+            } else {
+                CompletableFuture<T> fetch = new CompletableFuture<>();
+                entities.put(url, fetch);
+                missing.add(url);
+                fetched.add(fetch);
+            }
+        }
+        shareWork(missing.size(), "links to " + missing.size() + " SWAPI entities", i -> {
+            try {
+                fetched.get(i).complete(fetch(missing.get(i), entityType));
+            } catch (RuntimeException e) {
+                fetched.get(i).completeExceptionally(e);
+            }
+            return false;
+        });
+        return entities;
+    }
+
+    /**
+     * Fetches an entity missing from the store, and stores it before the fetch is over,
+     * so lookups arriving once it is over find it in the store rather than fetch it again.
+     */
+    private <T extends SwapiEntity> T fetch(String url, Class<T> entityType) {
+        return entityType.cast(inFlightEntities.execute(url, () -> {
+            T entity = entityStore.peek(url, entityType);
+            if (entity == null) {
+                entity = swapiClient.get(url, entityType);
+                entityStore.record(entity);
+            }
+            return entity;
+        }));
+    }
+
+    /**
+     * Fetches the pages after the first in parallel, and stops taking pages once the match is found.
+     */
+    private <T extends SwapiEntity, P extends SwapiPage<T>> T searchPages(String url, int pages, Class<P> pageType, Function<T, String> nameOf, String name) {
+        AtomicReference<T> match = new AtomicReference<>();
+        shareWork(pages - 1, "the pages of " + url, i -> {
+            P results = swapiClient.search(SwapiSearchPages.pageUrl(url, i + 2), pageType, ALL_RESULTS);
+            entityStore.record(results.getResults());
+            T found = SwapiSearchPages.exactMatch(results.getResults(), nameOf, name);
+            return found != null && match.compareAndSet(null, found);
+        });
+        return match.get();
+    }
+
+    /**
+     * Runs the tasks with up to pageParallelism workers, which stop taking tasks once one of them returns true.
+     * The calling thread is one of the workers, so all tasks still run when the executor has no thread to spare,
+     * and it only waits for the workers that did get a thread.
+     *
+     * @param tasks the number of tasks
+     * @param what  what the tasks work on, for the logs
+     * @param task  runs the task of the given index, and tells whether the remaining tasks can be skipped
+     */
+    private void shareWork(int tasks, String what, IntPredicate task) {
+        if (tasks == 0) {
+            return;
+        }
+        AtomicInteger nextTask = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        Runnable worker = () -> {
+            int i;
+            while (!done.get() && (i = nextTask.getAndIncrement()) < tasks) {
+                if (task.test(i)) {
+                    done.set(true);
+                }
+            }
+        };
+        List<Future<?>> helpers = new ArrayList<>();
+        List<AtomicBoolean> helpersStarted = new ArrayList<>();
+        try {
+            for (int i = 1; i < Math.min(pageParallelism, tasks); i++) {
+                AtomicBoolean started = new AtomicBoolean();
+                helpers.add(swapiExecutor.submit(() -> {
+                    if (started.compareAndSet(false, true)) {
+                        worker.run();
+                    }
+                }));
+                helpersStarted.add(started);
+            }
+        } catch (RejectedExecutionException e) {
+            log.debug("Working on {} with {} threads, the executor is saturated", what, helpers.size() + 1);
+        }
+        try {
+            worker.run();
+            for (int i = 0; i < helpers.size(); i++) {
+                // A helper still queued is kept from starting, there is nothing left for it to take
+                if (!done.get() && !helpersStarted.get(i).compareAndSet(false, true)) {
+                    helpers.get(i).get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while working on " + what));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // Calls still running are left to complete, other lookups may be sharing them
+            helpers.forEach(helper -> helper.cancel(false));
+        }
+    }
+}
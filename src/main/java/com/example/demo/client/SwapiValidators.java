@@ -0,0 +1,32 @@
+package com.example.demo.client;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * The validators SWAPI sent with a response, to revalidate the response with a conditional GET once it is stale.
+ *
+ * @param eTag         the entity tag of the response, or null
+ * @param lastModified the Last-Modified date of the response as sent, or null
+ */
+record SwapiValidators(String eTag, String lastModified) {
+    /**
+     * @return the validators of a response, or null if it has none
+     */
+    static SwapiValidators from(HttpHeaders headers) {
+        String eTag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        return eTag == null && lastModified == null ? null : new SwapiValidators(eTag, lastModified);
+    }
+
+    /**
+     * Makes a request conditional on the response having changed.
+     */
+    void addTo(HttpHeaders request) {
+        if (eTag != null) {
+            request.setIfNoneMatch(eTag);
+        }
+        if (lastModified != null) {
+            request.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+}
@@ -1,19 +1,139 @@
 package com.example.demo.config;
 
+import com.example.demo.InformationFormat;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
+@EnableConfigurationProperties(SwapiProperties.class)
 public class AppConfig {
+    private static final Duration KEEP_ALIVE_MARGIN = Duration.ofSeconds(1);
+
     @Bean
-    RestTemplate RestTemplate() {
-        return new RestTemplate();
+    RestTemplate RestTemplate(PoolingHttpClientConnectionManager swapiConnectionManager, SwapiProperties swapiProperties) {
+        SwapiProperties.Http http = swapiProperties.getHttp();
+        TimeValue keepAlive = TimeValue.of(http.getKeepAlive());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(http.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+                // What the default keep-alive strategy falls back to when SWAPI sends a Keep-Alive without a timeout
+                .setConnectionKeepAlive(keepAlive)
+                .build();
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(swapiConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAlive))
+                .evictIdleConnections(keepAlive)
+                .build()));
+    }
+
+    /**
+     * Keeps a connection for as long as SWAPI advertises in its Keep-Alive header, less a margin so the connection is
+     * given up before SWAPI closes it, and at most the configured keep-alive, which is also used when SWAPI advertises
+     * nothing.
+     */
+    static ConnectionKeepAliveStrategy keepAliveStrategy(TimeValue keepAlive) {
+        return (response, context) -> {
+            if (!response.containsHeader(HttpHeaders.KEEP_ALIVE)) {
+                return keepAlive;
+            }
+            long advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context).toMilliseconds();
+            long margin = Math.min(KEEP_ALIVE_MARGIN.toMillis(), advertised / 2);
+            return TimeValue.ofMilliseconds(Math.min(keepAlive.toMilliseconds(), advertised - margin));
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager swapiConnectionManager(SwapiProperties swapiProperties, MeterRegistry meterRegistry) {
+        SwapiProperties.Http http = swapiProperties.getHttp();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(http.getMaxConnectionsPerRoute())
+                .setMaxConnTotal(http.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "swapi").bindTo(meterRegistry);
+        return connectionManager;
     }
 
     @Bean
     ObjectMapper objectMapper () {
         return new ObjectMapper();
     }
+
+    /**
+     * Writes /information as CBOR with the configuration of the JSON mapper, see {@link InformationFormat}.
+     */
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(InformationFormat.CBOR.mapper(objectMapper));
+    }
+
+    /**
+     * Writes /information as Smile with the configuration of the JSON mapper, see {@link InformationFormat}.
+     */
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(InformationFormat.SMILE.mapper(objectMapper));
+    }
+
+    /**
+     * Runs the /information snapshot rebuilds on a thread of its own, without turning on scheduling for the whole app.
+     */
+    @Bean
+    @Profile("!reactive")
+    @ConditionalOnProperty(prefix = "swapi.snapshot", name = "enabled", havingValue = "true")
+    ThreadPoolTaskScheduler snapshotScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("snapshot-");
+        return scheduler;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    ExecutorService swapiExecutor(SwapiProperties swapiProperties) {
+        SwapiProperties.Executor executor = swapiProperties.getExecutor();
+        return new ThreadPoolExecutor(executor.getPoolSize(), executor.getPoolSize(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(executor.getQueueCapacity()), new CustomizableThreadFactory("swapi-"));
+    }
+
+    /**
+     * Runs the individual SWAPI calls, so a lookup can stop waiting at the call deadline and hedge slow calls.
+     * Twice the lookup threads, as every lookup may have a hedge running next to its primary call.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    ExecutorService swapiCallExecutor(SwapiProperties swapiProperties) {
+        SwapiProperties.Executor executor = swapiProperties.getExecutor();
+        return new ThreadPoolExecutor(2 * executor.getPoolSize(), 2 * executor.getPoolSize(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(executor.getQueueCapacity()), new CustomizableThreadFactory("swapi-call-"));
+    }
 }
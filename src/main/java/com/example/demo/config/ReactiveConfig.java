@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Beans for the non-blocking variant of the service, enabled by the {@code reactive} profile.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+    /**
+     * Serves the reactive endpoints from Netty, which would otherwise lose to Tomcat as both are on the classpath.
+     */
+    @Bean
+    NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    WebClient swapiWebClient(WebClient.Builder webClientBuilder, SwapiProperties swapiProperties) {
+        SwapiProperties.Http http = swapiProperties.getHttp();
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("swapi")
+                .maxConnections(http.getMaxConnectionsTotal())
+                .pendingAcquireTimeout(http.getConnectionRequestTimeout())
+                .maxIdleTime(http.getKeepAlive())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getReadTimeout());
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
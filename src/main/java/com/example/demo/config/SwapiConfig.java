@@ -19,9 +19,4 @@ public class SwapiConfig {
         return swapiUrl + "/people/?search=";
     }
 
-    @Bean
-    String swapiPlanetSearchUrl() {
-        return swapiUrl + "/planets/?search=";
-    }
-
 }
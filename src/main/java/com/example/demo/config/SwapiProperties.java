@@ -0,0 +1,274 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Tunables for the calls made to the Star Wars API, bound from the {@code swapi.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "swapi")
+public class SwapiProperties {
+    private Request request = new Request();
+    private Executor executor = new Executor();
+    private Batch batch = new Batch();
+    private Cache cache = new Cache();
+    private Http http = new Http();
+    private Snapshot snapshot = new Snapshot();
+    private Mirror mirror = new Mirror();
+    private Call call = new Call();
+    private Breaker breaker = new Breaker();
+    private Hedge hedge = new Hedge();
+    private Limit limit = new Limit();
+    private Search search = new Search();
+    private Entities entities = new Entities();
+    private ResponseCache responseCache = new ResponseCache();
+    private Warmup warmup = new Warmup();
+    private Stream stream = new Stream();
+
+    @Data
+    public static class Request {
+        /**
+         * Deadline for all SWAPI lookups made while serving a single request.
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Executor {
+        /**
+         * Number of threads running SWAPI lookups in parallel.
+         */
+        private int poolSize = 32;
+        /**
+         * Lookups waiting for a thread beyond this are rejected instead of queued.
+         */
+        private int queueCapacity = 256;
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * Largest number of lookups accepted in one batch request.
+         */
+        private int maxSize = 100;
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        /**
+         * Age after which a cached search result is refreshed in the background.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+        /**
+         * How long past its TTL a search result is still served while it is being refreshed.
+         */
+        private Duration maxStale = Duration.ofHours(1);
+        /**
+         * Number of search results kept before the least valuable ones are evicted.
+         */
+        private long maximumSize = 1000;
+        private Persistence persistence = new Persistence();
+
+        @Data
+        public static class Persistence {
+            /**
+             * Whether cached search results are logged to a local file and restored from it at startup.
+             */
+            private boolean enabled = false;
+            private Path file = Path.of("swapi-cache.log");
+            /**
+             * How often the log is rewritten down to the latest live result of every search.
+             */
+            private Duration compactionInterval = Duration.ofMinutes(10);
+        }
+    }
+
+    @Data
+    public static class Http {
+        private int maxConnectionsPerRoute = 50;
+        private int maxConnectionsTotal = 100;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        /**
+         * How long a caller waits for a pooled connection before giving up.
+         */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+        /**
+         * How long an idle connection is kept open for reuse, unless SWAPI advertises a shorter Keep-Alive timeout.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Snapshot {
+        /**
+         * Serve /information from a pre-encoded snapshot rebuilt in the background.
+         */
+        private boolean enabled = false;
+        private Duration refreshInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Mirror {
+        /**
+         * Answer searches and links from the local SWAPI mirror, falling back to SWAPI for misses.
+         */
+        private boolean enabled = false;
+        /**
+         * Page through SWAPI at startup and rewrite the mirror file before loading it. If the ingest fails,
+         * the mirror file already there is loaded.
+         */
+        private boolean ingest = false;
+        private Path file = Path.of("swapi-mirror.json.gz");
+    }
+
+    @Data
+    public static class Call {
+        /**
+         * Deadline for a single SWAPI call, hedge included, past which it fails and counts against the circuit breaker.
+         */
+        private Duration timeout = Duration.ofSeconds(4);
+    }
+
+    @Data
+    public static class Breaker {
+        /**
+         * Open a circuit breaker per SWAPI route when too many recent calls on it fail.
+         */
+        private boolean enabled = true;
+        /**
+         * Percentage of failed calls in the sliding window that opens the breaker.
+         */
+        private float failureRateThreshold = 50;
+        /**
+         * Number of most recent calls the failure rate is computed over.
+         */
+        private int slidingWindowSize = 20;
+        /**
+         * Calls needed in the window before the failure rate is acted upon.
+         */
+        private int minimumNumberOfCalls = 10;
+        /**
+         * How long an open breaker rejects calls before letting probes through.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+        /**
+         * Probe calls let through by a half open breaker to decide whether to close it again.
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    @Data
+    public static class Hedge {
+        /**
+         * Send a duplicate of a SWAPI call that is still running after the recent latency percentile of its route.
+         */
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        /**
+         * Shortest delay before hedging, so fast routes are not hedged on noise.
+         */
+        private Duration minDelay = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Limit {
+        /**
+         * Reject /information lookups over the adaptive concurrency limit with 503 instead of queueing them.
+         */
+        private boolean enabled = true;
+        private int initialLimit = 32;
+        private int minLimit = 4;
+        private int maxLimit = 256;
+        /**
+         * Lookups slower than this lower the limit, as failed ones do.
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+        /**
+         * Factor the limit is multiplied by on a slow or failed lookup.
+         */
+        private double backoffRatio = 0.9;
+        /**
+         * Sent in the Retry-After header of rejected requests.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * Most pages of one search fetched at the same time once the first page tells how many there are.
+         */
+        private int pageParallelism = 8;
+    }
+
+    @Data
+    public static class Entities {
+        /**
+         * Number of people, planets and starships kept by URL before the least valuable ones are evicted.
+         */
+        private long maximumSize = 10000;
+        /**
+         * Age after which a stored entity is dropped and fetched again when next needed.
+         */
+        private Duration ttl = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class ResponseCache {
+        /**
+         * How long clients and shared caches may reuse an /information response without revalidating it.
+         */
+        private Duration maxAge = Duration.ofSeconds(30);
+        /**
+         * How long a looked up response is taken to be unchanged, so a revalidation within it is answered with 304
+         * without looking it up again.
+         */
+        private Duration validity = Duration.ofMinutes(5);
+        /**
+         * Number of lookups whose latest ETag is remembered.
+         */
+        private long maximumSize = 10000;
+    }
+
+    @Data
+    public static class Warmup {
+        /**
+         * Whether the service warms up before it reports ready.
+         */
+        private boolean enabled = true;
+        /**
+         * Number of times the SWAPI models and the response are encoded and decoded, to compile those paths.
+         */
+        private int iterations = 2000;
+        /**
+         * Number of pooled connections opened to SWAPI ahead of the first lookups.
+         */
+        private int connections = 4;
+        /**
+         * Longest wait for the connections, and then for the default lookup's searches to be prefetched.
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Stream {
+        /**
+         * How often the default lookup is refreshed while anyone is subscribed to /information/stream.
+         */
+        private Duration refreshInterval = Duration.ofSeconds(5);
+        /**
+         * How often an idle stream is sent a heartbeat comment.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+        /**
+         * Most streams open at the same time, further ones are refused with 503.
+         */
+        private int maxSubscribers = 10000;
+    }
+}
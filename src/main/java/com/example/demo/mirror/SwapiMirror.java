@@ -0,0 +1,232 @@
+package com.example.demo.mirror;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local mirror of the SWAPI starships, people and planets collections.
+ * The mirror is ingested by paging through the collections, stored as a gzipped JSON file,
+ * and loaded into in-memory indexes at startup so searches can be answered without calling SWAPI.
+ */
+@Component
+@Slf4j
+public class SwapiMirror {
+    private static final String STARSHIPS = "starships";
+    private static final String PEOPLE = "people";
+    private static final String PLANETS = "planets";
+    private static final String SEARCH_PARAM = "search";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final SwapiProperties.Mirror mirrorProperties;
+    private final String swapiUrl;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Map<String, SwapiMirrorIndex<?>> indexes = Map.of();
+
+    public SwapiMirror(RestTemplate restTemplate, ObjectMapper objectMapper, SwapiProperties swapiProperties,
+                       @Value("${swapi.api.url}") String swapiUrl, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.mirrorProperties = swapiProperties.getMirror();
+        this.swapiUrl = swapiUrl;
+        this.hits = Counter.builder("swapi.mirror.searches").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("swapi.mirror.searches").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Ingests the mirror file if asked to, then loads it.
+     * A failed ingest leaves the previous mirror file in place, and that file is loaded instead.
+     *
+     * @throws IOException if the mirror file cannot be read
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (!mirrorProperties.isEnabled()) {
+            return;
+        }
+        if (mirrorProperties.isIngest()) {
+            try {
+                write(ingest(), mirrorProperties.getFile());
+            } catch (IOException | RestClientException e) {
+                log.warn("Failed to ingest SWAPI mirror from {}, keeping the mirror file {}", swapiUrl, mirrorProperties.getFile(), e);
+            }
+        }
+        if (!Files.exists(mirrorProperties.getFile())) {
+            log.warn("SWAPI mirror file {} does not exist, all searches will go to SWAPI", mirrorProperties.getFile());
+            return;
+        }
+        load(read(mirrorProperties.getFile()));
+    }
+
+    public boolean isEnabled() {
+        return mirrorProperties.isEnabled();
+    }
+
+    /**
+     * Answers a SWAPI search from the mirror.
+     *
+     * @param url        the full search URL
+     * @param pageType   the SWAPI page model to answer with
+     * @param maxResults the number of results after which the search stops
+     * @return the page of matches, or null if the mirror has no match for the search
+     */
+    public <P extends SwapiPage<?>> P search(String url, Class<P> pageType, int maxResults) {
+        P page = find(url, pageType, maxResults);
+        (page == null ? misses : hits).increment();
+        return page;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <P extends SwapiPage<?>> P find(String url, Class<P> pageType, int maxResults) {
+        if (!url.startsWith(swapiUrl + "/")) {
+            return null;
+        }
+        UriComponents search = UriComponentsBuilder.fromUriString(url.substring(swapiUrl.length() + 1)).build();
+        String term = search.getQueryParams().getFirst(SEARCH_PARAM);
+        if (term == null || search.getPath() == null) {
+            return null;
+        }
+        SwapiMirrorIndex<?> index = indexes.get(StringUtils.trimTrailingCharacter(search.getPath(), '/'));
+        if (index == null || index.pageType() != pageType) {
+            return null;
+        }
+        // The term is percent-encoded in the search URL, a '+' in it is a plus sign rather than a space
+        term = UriUtils.decode(term, StandardCharsets.UTF_8);
+        List<?> results = index.search(term, maxResults);
+        if (results.isEmpty()) {
+            return null;
+        }
+        // The mirror answers with every match on a single page
+        P page = BeanUtils.instantiateClass(pageType);
+        page.setCount(results.size());
+        ((SwapiPage<Object>) page).setResults((List<Object>) results);
+        return page;
+    }
+
+    /**
+     * Looks up a mirrored starship, person or planet by the URL SWAPI links it with.
+     *
+     * @param url        the SWAPI URL of the entity
+     * @param entityType the SWAPI model of the entity
+     * @return the entity, or null if it is not mirrored
+     */
+    public <T extends SwapiEntity> T findByUrl(String url, Class<T> entityType) {
+        for (SwapiMirrorIndex<?> index : indexes.values()) {
+            Object entity = index.findByUrl(url);
+            if (entityType.isInstance(entity)) {
+                return entityType.cast(entity);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pages through the full SWAPI starships, people and planets collections.
+     *
+     * @return the collections
+     */
+    public SwapiMirrorData ingest() {
+        log.info("Ingesting SWAPI mirror from {}", swapiUrl);
+        return SwapiMirrorData.builder()
+                .ingestedAt(System.currentTimeMillis())
+                .starships(fetchAll(STARSHIPS, SwapiStarshipResponse.class))
+                .people(fetchAll(PEOPLE, SwapiPersonResponse.class))
+                .planets(fetchAll(PLANETS, SwapiPlanetResponse.class))
+                .build();
+    }
+
+    /**
+     * Writes the collections to the mirror file, replacing it atomically.
+     *
+     * @param data the collections
+     * @param file the mirror file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(SwapiMirrorData data, Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+            objectMapper.writeValue(out, data);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote SWAPI mirror {} with {} starships, {} people and {} planets", file,
+                data.getStarships().size(), data.getPeople().size(), data.getPlanets().size());
+    }
+
+    /**
+     * Streams the collections back from the mirror file.
+     *
+     * @param file the mirror file
+     * @return the collections
+     * @throws IOException if the file cannot be read
+     */
+    public SwapiMirrorData read(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return objectMapper.readValue(in, SwapiMirrorData.class);
+        }
+    }
+
+    /**
+     * Builds the search indexes over the collections and starts answering searches from them.
+     *
+     * @param data the collections
+     */
+    public void load(SwapiMirrorData data) {
+        indexes = Map.of(
+                STARSHIPS, new SwapiMirrorIndex<>(SwapiStarshipResponse.class, data.getStarships(), StarshipResponse::getUrl,
+                        StarshipResponse::getName, StarshipResponse::getModel),
+                PEOPLE, new SwapiMirrorIndex<>(SwapiPersonResponse.class, data.getPeople(), Person::getUrl, Person::getName),
+                PLANETS, new SwapiMirrorIndex<>(SwapiPlanetResponse.class, data.getPlanets(), PlanetResponse::getUrl, PlanetResponse::getName));
+        log.info("Loaded SWAPI mirror ingested at {} with {} starships, {} people and {} planets", data.getIngestedAt(),
+                indexes.get(STARSHIPS).size(), indexes.get(PEOPLE).size(), indexes.get(PLANETS).size());
+    }
+
+    private <T, P extends SwapiPage<T>> List<T> fetchAll(String collection, Class<P> pageType) {
+        List<T> entries = new ArrayList<>();
+        String url = swapiUrl + "/" + collection + "/";
+        while (url != null) {
+            P page = restTemplate.execute(url, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                    response -> objectMapper.readValue(response.getBody(), pageType));
+            if (page == null || page.getResults() == null) {
+                break;
+            }
+            entries.addAll(page.getResults());
+            url = page.getNext();
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.mirror;
+
+import com.example.demo.models.Person;
+import com.example.demo.models.PlanetResponse;
+import com.example.demo.models.StarshipResponse;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * The full SWAPI starships, people and planets collections, as stored in the mirror file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SwapiMirrorData {
+    private long ingestedAt;
+    private List<StarshipResponse> starships;
+    private List<Person> people;
+    private List<PlanetResponse> planets;
+}
@@ -0,0 +1,85 @@
+package com.example.demo.mirror;
+
+import com.example.demo.models.SwapiEntity;
+import com.example.demo.models.SwapiPage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory indexes over one mirrored SWAPI collection.
+ *
+ * @param <T> the type of the entries in the collection
+ */
+class SwapiMirrorIndex<T> {
+    private final Class<? extends SwapiPage<T>> pageType;
+    private final List<T> entries;
+    private final String[] searchText;
+    private final Map<String, T> byUrl = new HashMap<>();
+
+    /**
+     * @param pageType     the SWAPI page model that searches over this collection are decoded into
+     * @param entries      the entries of the collection
+     * @param url          the URL of an entry, indexed by its canonical form
+     * @param searchFields the fields SWAPI matches search terms against
+     */
+    @SafeVarargs
+    SwapiMirrorIndex(Class<? extends SwapiPage<T>> pageType, List<T> entries, Function<T, String> url,
+                     Function<T, String>... searchFields) {
+        this.pageType = pageType;
+        this.entries = entries == null ? List.of() : List.copyOf(entries);
+        this.searchText = new String[this.entries.size()];
+        for (int i = 0; i < this.entries.size(); i++) {
+            T entry = this.entries.get(i);
+            StringBuilder text = new StringBuilder();
+            for (Function<T, String> field : searchFields) {
+                String value = field.apply(entry);
+                if (value != null) {
+                    text.append(value.toLowerCase(Locale.ROOT)).append('\n');
+                }
+            }
+            searchText[i] = text.toString();
+            String entryUrl = url.apply(entry);
+            if (entryUrl != null) {
+                byUrl.put(SwapiEntity.canonicalUrl(entryUrl), entry);
+            }
+        }
+    }
+
+    Class<? extends SwapiPage<T>> pageType() {
+        return pageType;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Matches entries the way SWAPI does, by case-insensitive substring of their search fields.
+     *
+     * @param term       the search term
+     * @param maxResults the number of matches after which the search stops
+     * @return the matching entries, in collection order
+     */
+    List<T> search(String term, int maxResults) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < searchText.length && results.size() < maxResults; i++) {
+            if (searchText[i].contains(needle)) {
+                results.add(entries.get(i));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @param url the URL of an entry, in any of the forms SWAPI links with
+     */
+    T findByUrl(String url) {
+        return byUrl.get(SwapiEntity.canonicalUrl(url));
+    }
+}
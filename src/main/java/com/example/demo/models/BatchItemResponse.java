@@ -0,0 +1,18 @@
+package com.example.demo.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * The outcome of one lookup in a batch /information request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse {
+    private int status;
+    private Response response;
+    private String error;
+}
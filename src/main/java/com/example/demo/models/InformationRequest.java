@@ -0,0 +1,18 @@
+package com.example.demo.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+/**
+ * The starship, person and planet an /information lookup is about.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class InformationRequest {
+    private String starship;
+    private String person;
+    private String planet;
+}
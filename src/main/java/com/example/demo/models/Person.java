@@ -9,6 +9,8 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class Person {
+public class Person implements SwapiEntity {
+    private String name;
     private String homeworld;
+    private String url;
 }
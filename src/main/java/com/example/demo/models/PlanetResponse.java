@@ -10,6 +10,7 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class PlanetResponse {
+public class PlanetResponse implements SwapiEntity {
+    private String name;
     private String url;
 }
@@ -10,10 +10,11 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class StarshipResponse {
+public class StarshipResponse implements SwapiEntity {
     private String name;
     @JsonProperty("starship_class")
     private String starshipClass;
     private String model;
     private String crew;
+    private String url;
 }
@@ -0,0 +1,34 @@
+package com.example.demo.models;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * A SWAPI person, planet or starship, which SWAPI identifies and links to by URL.
+ */
+public interface SwapiEntity {
+    /**
+     * @return the URL of the entity, or null if SWAPI did not send one
+     */
+    String getUrl();
+
+    /**
+     * Reduces the URL of an entity to the host and path, with a trailing slash,
+     * so that http and https links, and links with or without the trailing slash, find the same entity.
+     */
+    static String canonicalUrl(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = URI.create(trimmed);
+            if (uri.getHost() == null) {
+                return trimmed;
+            }
+            String path = uri.getRawPath() == null ? "/" : uri.getRawPath();
+            return uri.getHost().toLowerCase(Locale.ROOT)
+                    + (uri.getPort() == -1 ? "" : ":" + uri.getPort())
+                    + (path.endsWith("/") ? path : path + "/");
+        } catch (IllegalArgumentException e) {
+            return trimmed;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.models;
+
+import java.util.List;
+
+/**
+ * A page of results returned by a SWAPI search.
+ *
+ * @param <T> the type of the entries in the page
+ */
+public interface SwapiPage<T> {
+    /**
+     * @return the number of results of the search across all its pages, or null if unknown
+     */
+    Integer getCount();
+
+    void setCount(Integer count);
+
+    /**
+     * @return the URL of the next page, or null if this is the last page
+     */
+    String getNext();
+
+    void setNext(String next);
+
+    List<T> getResults();
+
+    void setResults(List<T> results);
+}
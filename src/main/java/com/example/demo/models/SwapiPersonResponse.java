@@ -11,6 +11,8 @@ import java.util.List;
 @AllArgsConstructor
 @Getter
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class SwapiPersonResponse {
+public class SwapiPersonResponse implements SwapiPage<Person> {
+    private Integer count;
+    private String next;
     private List<Person> results;
 }
@@ -11,6 +11,8 @@ import java.util.List;
 @AllArgsConstructor
 @Getter
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class SwapiPlanetResponse {
+public class SwapiPlanetResponse implements SwapiPage<PlanetResponse> {
+    private Integer count;
+    private String next;
     private List<PlanetResponse> results;
 }
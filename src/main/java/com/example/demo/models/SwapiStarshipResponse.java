@@ -11,6 +11,8 @@ import java.util.List;
 @AllArgsConstructor
 @Getter
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class SwapiStarshipResponse {
+public class SwapiStarshipResponse implements SwapiPage<StarshipResponse> {
+    private Integer count;
+    private String next;
     private List<StarshipResponse> results;
 }
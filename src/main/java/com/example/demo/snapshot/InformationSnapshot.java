@@ -0,0 +1,27 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.InformationFormat;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A /information response encoded ahead of time, in every format it is served in.
+ *
+ * @param bodies    the body in every format, UTF-8 for JSON
+ * @param eTag      the strong, quoted entity tag of the JSON body, the other formats derive theirs from it
+ * @param createdAt when the response was built
+ */
+public record InformationSnapshot(Map<InformationFormat, byte[]> bodies, String eTag, Instant createdAt) {
+
+    /**
+     * @return the UTF-8 JSON body
+     */
+    public byte[] body() {
+        return body(InformationFormat.JSON);
+    }
+
+    public byte[] body(InformationFormat format) {
+        return bodies.get(format);
+    }
+}
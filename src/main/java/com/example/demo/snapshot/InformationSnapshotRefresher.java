@@ -0,0 +1,67 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.StarshipController;
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Rebuilds the /information snapshot on a schedule, run by the snapshotScheduler of {@link com.example.demo.config.AppConfig}.
+ * A failed rebuild leaves the last good snapshot in place.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "swapi.snapshot", name = "enabled", havingValue = "true")
+@Slf4j
+public class InformationSnapshotRefresher {
+    private final StarshipController starshipController;
+    private final InformationSnapshotStore snapshotStore;
+    private final TaskScheduler taskScheduler;
+    private final SwapiProperties swapiProperties;
+    private final Counter refreshFailures;
+
+    public InformationSnapshotRefresher(StarshipController starshipController, InformationSnapshotStore snapshotStore,
+                                        TaskScheduler snapshotScheduler, SwapiProperties swapiProperties, MeterRegistry meterRegistry) {
+        this.starshipController = starshipController;
+        this.snapshotStore = snapshotStore;
+        this.taskScheduler = snapshotScheduler;
+        this.swapiProperties = swapiProperties;
+        this.refreshFailures = Counter.builder("information.snapshot.refresh.failures")
+                .description("Snapshot rebuilds that failed and left the previous snapshot in place")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        taskScheduler.scheduleWithFixedDelay(this::refresh, Instant.now(), swapiProperties.getSnapshot().getRefreshInterval());
+    }
+
+    /**
+     * Rebuilds the response and replaces the snapshot if the rebuild succeeded.
+     */
+    public void refresh() {
+        try {
+            ResponseEntity<Response> response = starshipController.lookupInBackground();
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                log.warn("Keeping previous /information snapshot, rebuild returned {}", response.getStatusCode());
+                refreshFailures.increment();
+                return;
+            }
+            InformationSnapshot snapshot = snapshotStore.update(response.getBody());
+            log.info("Refreshed /information snapshot {}", snapshot.eTag());
+        } catch (Exception e) {
+            log.error("Keeping previous /information snapshot, rebuild failed", e);
+            refreshFailures.increment();
+        }
+    }
+}
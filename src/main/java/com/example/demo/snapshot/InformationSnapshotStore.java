@@ -0,0 +1,65 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.InformationETags;
+import com.example.demo.InformationFormat;
+import com.example.demo.models.Response;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the latest pre-encoded /information response, if snapshots are being taken.
+ */
+@Component
+public class InformationSnapshotStore {
+    private final Map<InformationFormat, ObjectMapper> objectMappers = new EnumMap<>(InformationFormat.class);
+    private final AtomicReference<InformationSnapshot> current = new AtomicReference<>();
+
+    public InformationSnapshotStore(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        for (InformationFormat format : InformationFormat.values()) {
+            objectMappers.put(format, format.mapper(objectMapper));
+        }
+        Gauge.builder("information.snapshot.age", this, InformationSnapshotStore::ageSeconds)
+                .description("Seconds since the served /information snapshot was built")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the latest snapshot, or null if none has been taken
+     */
+    public InformationSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Encodes the response in every format and makes it the snapshot that is served.
+     * The snapshot is tagged like a looked up response, so clients revalidate across both.
+     *
+     * @param response the freshly built response
+     * @return the new snapshot
+     * @throws JsonProcessingException if the response cannot be encoded
+     */
+    public InformationSnapshot update(Response response) throws JsonProcessingException {
+        Map<InformationFormat, byte[]> bodies = new EnumMap<>(InformationFormat.class);
+        for (Map.Entry<InformationFormat, ObjectMapper> objectMapper : objectMappers.entrySet()) {
+            bodies.put(objectMapper.getKey(), objectMapper.getValue().writeValueAsBytes(response));
+        }
+        InformationSnapshot snapshot = new InformationSnapshot(bodies, InformationETags.eTag(response), Instant.now());
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    private double ageSeconds() {
+        InformationSnapshot snapshot = current.get();
+        return snapshot == null ? Double.NaN : Duration.between(snapshot.createdAt(), Instant.now()).toMillis() / 1000.0;
+    }
+}
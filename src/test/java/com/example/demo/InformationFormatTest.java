@@ -0,0 +1,47 @@
+package com.example.demo;
+
+import com.example.demo.models.Response;
+import com.example.demo.models.Starship;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InformationFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testNegotiate_accept() {
+        assertEquals(InformationFormat.JSON, InformationFormat.negotiate(null));
+        assertEquals(InformationFormat.JSON, InformationFormat.negotiate("*/*"));
+        assertEquals(InformationFormat.JSON, InformationFormat.negotiate("text/html"));
+        assertEquals(InformationFormat.JSON, InformationFormat.negotiate("not a media type"));
+        assertEquals(InformationFormat.CBOR, InformationFormat.negotiate("application/cbor"));
+        assertEquals(InformationFormat.SMILE, InformationFormat.negotiate("application/json;q=0.9, application/x-jackson-smile"));
+        // The most specific range decides, however the wildcard is weighted
+        assertEquals(InformationFormat.CBOR, InformationFormat.negotiate("application/*;q=0.1, application/cbor;q=0.8"));
+        assertEquals(InformationFormat.JSON, InformationFormat.negotiate("application/*, application/cbor;q=0"));
+    }
+
+    @Test
+    void testETag_everyFormat() {
+        assertEquals("\"abc\"", InformationFormat.JSON.eTag("\"abc\""));
+        assertEquals("\"abc-cbor\"", InformationFormat.CBOR.eTag("\"abc\""));
+        assertEquals("\"abc-smile\"", InformationFormat.SMILE.eTag("\"abc\""));
+    }
+
+    @Test
+    void testMapper_sameFields() throws Exception {
+        Response emptyStarship = Response.builder().build();
+        Response starship = Response.builder().starship(Starship.builder().name("Death Star").build()).crew("342,953").build();
+
+        for (InformationFormat format : InformationFormat.values()) {
+            ObjectMapper mapper = format.mapper(objectMapper);
+            assertEquals(objectMapper.readTree("{\"starship\":{},\"crew\":\"0\",\"isLeiaOnPlanet\":\"false\"}"),
+                    mapper.readTree(mapper.writeValueAsBytes(emptyStarship)), format.name());
+            assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(starship)),
+                    mapper.readTree(mapper.writeValueAsBytes(starship)), format.name());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo;
+
+import com.example.demo.config.SwapiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InformationLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SwapiProperties swapiProperties;
+
+    @BeforeEach
+    void beforeEach() {
+        this.swapiProperties = new SwapiProperties();
+        swapiProperties.getLimit().setInitialLimit(2);
+        swapiProperties.getLimit().setMinLimit(1);
+    }
+
+    @Test
+    void testTryAcquire_rejectsOverLimit() {
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, meterRegistry);
+
+        assertNotNull(limiter.tryAcquire(1));
+        assertNotNull(limiter.tryAcquire(1));
+        assertNull(limiter.tryAcquire(1));
+
+        assertEquals(2.0, meterRegistry.get("information.inflight").gauge().value());
+        assertEquals(1.0, meterRegistry.get("information.rejections").counter().count());
+    }
+
+    @Test
+    void testTryAcquire_disabledNeverRejects() {
+        swapiProperties.getLimit().setEnabled(false);
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(limiter.tryAcquire(1));
+        }
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    @Test
+    void testTryAcquire_batchCountsAsAtMostTheLimit() {
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, meterRegistry);
+
+        InformationLimiter.Permit batch = limiter.tryAcquire(100);
+        assertNotNull(batch);
+        assertNull(limiter.tryAcquire(1));
+
+        batch.cancelled();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testRelease_aimd() {
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, meterRegistry);
+
+        // Fast lookups using the limit raise it by one each
+        InformationLimiter.Permit first = limiter.tryAcquire(1);
+        InformationLimiter.Permit second = limiter.tryAcquire(1);
+        first.release(false);
+        second.release(false);
+        assertEquals(4, limiter.getLimit());
+
+        // A lookup far below the limit tells nothing about capacity
+        limiter.tryAcquire(1).release(false);
+        assertEquals(4, limiter.getLimit());
+
+        // A failed lookup cuts it
+        limiter.tryAcquire(1).release(true);
+        assertEquals(3, limiter.getLimit());
+        assertEquals(3.0, meterRegistry.get("information.limit").gauge().value());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testRelease_slowLookupLowersLimit() throws InterruptedException {
+        swapiProperties.getLimit().setLatencyThreshold(Duration.ofMillis(10));
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, meterRegistry);
+
+        InformationLimiter.Permit permit = limiter.tryAcquire(1);
+        Thread.sleep(50);
+        permit.release(false);
+        permit.release(false);
+
+        assertEquals(1, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testRejected() {
+        swapiProperties.getLimit().setRetryAfter(Duration.ofMillis(1500));
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, meterRegistry);
+
+        ResponseEntity<Void> response = limiter.rejected().build();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
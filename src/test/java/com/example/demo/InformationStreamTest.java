@@ -0,0 +1,100 @@
+package com.example.demo;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InformationStreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SwapiProperties swapiProperties = new SwapiProperties();
+
+    @BeforeEach
+    void beforeEach() {
+        swapiProperties.getStream().setRefreshInterval(Duration.ofMillis(10));
+    }
+
+    @Test
+    void testStream_currentResponseThenChanges() {
+        AtomicInteger lookups = new AtomicInteger();
+        InformationStream stream = new InformationStream(swapiProperties, meterRegistry);
+
+        List<ServerSentEvent<Response>> events = stream.subscribe(() -> Mono.fromSupplier(() -> response(lookups.incrementAndGet() < 5 ? "2" : "3")))
+                .filter(event -> event.data() != null)
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("2", events.get(0).data().getCrew());
+        assertEquals("3", events.get(1).data().getCrew());
+        assertEquals(InformationETags.eTag(events.get(1).data()), events.get(1).id());
+        assertTrue(lookups.get() >= 5);
+        assertEquals(2.0, meterRegistry.get("information.stream.changes").counter().count());
+        assertEquals(0, stream.getSubscribers());
+    }
+
+    @Test
+    void testStream_sharedRefresh() {
+        AtomicInteger lookups = new AtomicInteger();
+        swapiProperties.getStream().setRefreshInterval(Duration.ofHours(1));
+        InformationStream stream = new InformationStream(swapiProperties, meterRegistry);
+        Flux<Response> first = stream.subscribe(() -> Mono.fromSupplier(() -> response(String.valueOf(lookups.incrementAndGet()))))
+                .mapNotNull(ServerSentEvent::data);
+        Disposable subscription = first.subscribe();
+        try {
+            Response second = stream.subscribe(() -> Mono.error(new IllegalStateException("Not used")))
+                    .mapNotNull(ServerSentEvent::data)
+                    .blockFirst(Duration.ofSeconds(5));
+
+            // The second subscriber is sent the latest response without a lookup of its own
+            assertEquals("1", second.getCrew());
+            assertEquals(1, lookups.get());
+        } finally {
+            subscription.dispose();
+        }
+    }
+
+    @Test
+    void testStream_heartbeats() {
+        swapiProperties.getStream().setHeartbeat(Duration.ofMillis(20));
+        InformationStream stream = new InformationStream(swapiProperties, meterRegistry);
+
+        List<ServerSentEvent<Response>> events = stream.subscribe(Mono::empty)
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("heartbeat", events.get(0).comment());
+        assertNull(events.get(0).data());
+    }
+
+    @Test
+    void testSubscribe_overLimit() {
+        swapiProperties.getStream().setMaxSubscribers(1);
+        InformationStream stream = new InformationStream(swapiProperties, meterRegistry);
+        Disposable subscription = stream.subscribe(Mono::empty).subscribe();
+
+        assertNull(stream.subscribe(Mono::empty));
+        assertEquals(1.0, meterRegistry.get("information.stream.rejections").counter().count());
+
+        subscription.dispose();
+        assertNotNull(stream.subscribe(Mono::empty));
+    }
+
+    private static Response response(String crew) {
+        return Response.builder().crew(crew).build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo;
+
+import com.example.demo.client.SwapiPageReader;
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Response;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InformationWarmupTest {
+
+    private static final String SWAPI_URL = "https://swapi.dev/api";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private StarshipController starshipController;
+
+    @Mock
+    private ObjectProvider<StarshipController> starshipControllerProvider;
+
+    @Mock
+    private ObjectProvider<ReactiveStarshipController> reactiveStarshipControllerProvider;
+
+    @Mock
+    private ObjectProvider<WebClient> webClientProvider;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SwapiProperties swapiProperties = new SwapiProperties();
+
+    private ExecutorService executor;
+
+    private InformationWarmup warmup;
+
+    @BeforeEach
+    void beforeEach() {
+        this.executor = Executors.newFixedThreadPool(4);
+        swapiProperties.getWarmup().setIterations(10);
+        swapiProperties.getWarmup().setConnections(3);
+        when(starshipControllerProvider.getIfAvailable()).thenReturn(starshipController);
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.warmup = new InformationWarmup(objectMapper, new SwapiPageReader(objectMapper), swapiProperties, meterRegistry, SWAPI_URL,
+                restTemplate, executor, starshipControllerProvider, reactiveStarshipControllerProvider, webClientProvider);
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void testRun_prefetchesDefaultLookup() {
+        when(starshipController.lookupInBackground()).thenReturn(ResponseEntity.ok(Response.builder().build()));
+
+        warmup.run(null);
+
+        verify(restTemplate, times(3)).execute(eq(SWAPI_URL + "/"), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+        // The default lookup is run as a background one, outside the limiter and the lookup metrics
+        verify(starshipController).lookupInBackground();
+        verify(starshipController, never()).getStarshipInformation();
+        for (String stage : new String[]{"codecs", "connections", "prefetch", "total"}) {
+            assertEquals(1, meterRegistry.get("information.warmup").tag("stage", stage).timer().count());
+        }
+    }
+
+    @Test
+    void testRun_swapiDown() {
+        when(restTemplate.execute(eq(SWAPI_URL + "/"), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        when(starshipController.lookupInBackground()).thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertDoesNotThrow(() -> warmup.run(null));
+
+        assertEquals(1, meterRegistry.get("information.warmup").tag("stage", "total").timer().count());
+    }
+}
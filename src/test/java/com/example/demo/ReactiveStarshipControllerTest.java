@@ -0,0 +1,175 @@
+package com.example.demo;
+
+import com.example.demo.client.ReactiveSwapiClient;
+import com.example.demo.client.ReactiveSwapiSearcher;
+import com.example.demo.client.SwapiClient;
+import com.example.demo.client.SwapiEntityStore;
+import com.example.demo.client.SwapiMetrics;
+import com.example.demo.client.SwapiSearcher;
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.*;
+import com.example.demo.snapshot.InformationSnapshotStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.demo.StarshipController.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveStarshipControllerTest {
+
+    private static final String BASE_URL = "https://swapi.dev/api";
+    private static final String STARSHIP_SEARCH_URL = BASE_URL + "/starships/?search=";
+    private static final String PEOPLE_SEARCH_URL = BASE_URL + "/people/?search=";
+    private static final String DEATH_STAR_SEARCH_URL = STARSHIP_SEARCH_URL + "Death%20Star";
+    private static final String LEIA_SEARCH_URL = PEOPLE_SEARCH_URL + "Leia%20Organa";
+    private static final String ALDERAAN_URL = BASE_URL + "/planets/2/";
+
+    @Mock
+    private ReactiveSwapiClient reactiveSwapiClient;
+
+    @Mock
+    private SwapiClient swapiClient;
+
+    private SwapiProperties swapiProperties;
+
+    private ExecutorService executor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SwapiMetrics swapiMetrics;
+
+    private InformationMetrics informationMetrics;
+
+    private InformationLimiter informationLimiter;
+
+    private ReactiveStarshipController reactiveStarshipController;
+
+    @BeforeEach
+    void beforeEach() {
+        this.swapiProperties = new SwapiProperties();
+        this.executor = Executors.newFixedThreadPool(3);
+        this.swapiMetrics = new SwapiMetrics(this.meterRegistry, this.swapiProperties);
+        this.informationMetrics = new InformationMetrics(this.meterRegistry, this.swapiProperties);
+        this.informationLimiter = new InformationLimiter(this.swapiProperties, this.meterRegistry);
+        this.reactiveStarshipController = new ReactiveStarshipController(new ReactiveSwapiSearcher(this.reactiveSwapiClient, this.swapiMetrics,
+                new SwapiEntityStore(this.swapiProperties, this.meterRegistry), this.swapiProperties),
+                STARSHIP_SEARCH_URL, PEOPLE_SEARCH_URL, this.swapiProperties, this.informationMetrics, this.informationLimiter,
+                new InformationETags(this.swapiProperties, this.meterRegistry), new InformationStream(this.swapiProperties, this.meterRegistry));
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void testInformation_sameJsonAsBlockingController() throws Exception {
+        SwapiStarshipResponse starships = starships(StarshipResponse.builder().name(DEATH_START_CONST)
+                .model("DS-1 Orbital Battle Station").starshipClass("Deep Space Mobile Battlestation").crew("342,953").build());
+        SwapiPersonResponse people = people(ALDERAAN_URL);
+        PlanetResponse alderaan = alderaan();
+        when(reactiveSwapiClient.search(eq(DEATH_STAR_SEARCH_URL), eq(SwapiStarshipResponse.class), anyInt())).thenReturn(Mono.just(starships));
+        when(reactiveSwapiClient.search(eq(LEIA_SEARCH_URL), eq(SwapiPersonResponse.class), anyInt())).thenReturn(Mono.just(people));
+        when(reactiveSwapiClient.get(ALDERAAN_URL, PlanetResponse.class)).thenReturn(Mono.just(alderaan));
+        when(swapiClient.search(eq(DEATH_STAR_SEARCH_URL), eq(SwapiStarshipResponse.class), anyInt())).thenReturn(starships);
+        when(swapiClient.search(eq(LEIA_SEARCH_URL), eq(SwapiPersonResponse.class), anyInt())).thenReturn(people);
+        when(swapiClient.get(ALDERAAN_URL, PlanetResponse.class)).thenReturn(alderaan);
+
+        ResponseEntity<Response> reactive = reactiveStarshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null).block();
+        ResponseEntity<Response> blocking = blockingController().getStarshipInformation();
+
+        assertEquals(HttpStatus.OK, reactive.getStatusCode());
+        assertEquals("true", reactive.getBody().getIsLeiaOnPlanet());
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertArrayEquals(objectMapper.writeValueAsBytes(blocking.getBody()), objectMapper.writeValueAsBytes(reactive.getBody()));
+        assertEquals(InformationETags.eTag(blocking.getBody()), reactive.getHeaders().getETag());
+    }
+
+    @Test
+    void testInformation_notModifiedWithoutLookup() {
+        when(reactiveSwapiClient.search(eq(DEATH_STAR_SEARCH_URL), eq(SwapiStarshipResponse.class), anyInt())).thenReturn(Mono.just(starships()));
+        when(reactiveSwapiClient.search(eq(LEIA_SEARCH_URL), eq(SwapiPersonResponse.class), anyInt())).thenReturn(Mono.just(new SwapiPersonResponse()));
+
+        ResponseEntity<Response> first = reactiveStarshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null).block();
+        ResponseEntity<Response> revalidated = reactiveStarshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST,
+                first.getHeaders().getETag()).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertEquals(first.getHeaders().getETag(), revalidated.getHeaders().getETag());
+        assertNull(revalidated.getBody());
+        verify(reactiveSwapiClient, times(1)).search(eq(DEATH_STAR_SEARCH_URL), eq(SwapiStarshipResponse.class), anyInt());
+    }
+
+    @Test
+    void testInformation_noStarship() throws Exception {
+        when(reactiveSwapiClient.search(eq(DEATH_STAR_SEARCH_URL), eq(SwapiStarshipResponse.class), anyInt())).thenReturn(Mono.just(starships()));
+        when(reactiveSwapiClient.search(eq(LEIA_SEARCH_URL), eq(SwapiPersonResponse.class), anyInt())).thenReturn(Mono.just(new SwapiPersonResponse()));
+
+        ResponseEntity<Response> response = reactiveStarshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"starship\":{},\"crew\":\"0\",\"isLeiaOnPlanet\":\"false\"}", new ObjectMapper().writeValueAsString(response.getBody()));
+    }
+
+    @Test
+    void testInformation_failure() {
+        when(reactiveSwapiClient.search(eq(DEATH_STAR_SEARCH_URL), eq(SwapiStarshipResponse.class), anyInt())).thenReturn(Mono.error(new IllegalStateException("SWAPI is down")));
+        when(reactiveSwapiClient.search(eq(LEIA_SEARCH_URL), eq(SwapiPersonResponse.class), anyInt())).thenReturn(Mono.never());
+
+        ResponseEntity<Response> response = reactiveStarshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null).block();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertNull(response.getBody().getStarship());
+    }
+
+    @Test
+    void testInformation_timeout() {
+        swapiProperties.getRequest().setTimeout(Duration.ofMillis(50));
+        when(reactiveSwapiClient.search(eq(DEATH_STAR_SEARCH_URL), eq(SwapiStarshipResponse.class), anyInt())).thenReturn(Mono.never());
+        when(reactiveSwapiClient.search(eq(LEIA_SEARCH_URL), eq(SwapiPersonResponse.class), anyInt())).thenReturn(Mono.never());
+
+        ResponseEntity<Response> response = reactiveStarshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private StarshipController blockingController() {
+        return new StarshipController(new SwapiSearcher(this.swapiClient, this.executor, this.swapiMetrics,
+                new SwapiEntityStore(this.swapiProperties, new SimpleMeterRegistry()), this.swapiProperties), STARSHIP_SEARCH_URL, PEOPLE_SEARCH_URL, this.executor,
+                this.swapiProperties, new InformationSnapshotStore(new ObjectMapper(), new SimpleMeterRegistry()), this.informationMetrics, this.informationLimiter,
+                new InformationETags(this.swapiProperties, new SimpleMeterRegistry()), new InformationStream(this.swapiProperties, new SimpleMeterRegistry()));
+    }
+
+    private static SwapiStarshipResponse starships(StarshipResponse... results) {
+        return SwapiStarshipResponse.builder().results(List.of(results)).build();
+    }
+
+    private static SwapiPersonResponse people(String homeworld) {
+        return SwapiPersonResponse.builder().results(List.of(Person.builder().name(LEIA_NAME_CONST).homeworld(homeworld).build())).build();
+    }
+
+    private static PlanetResponse alderaan() {
+        return PlanetResponse.builder().name(ALDERAAN_PLANET_CONST).url(ALDERAAN_URL).build();
+    }
+}
@@ -1,41 +1,226 @@
 package com.example.demo;
 
+import com.example.demo.client.SwapiCacheLog;
+import com.example.demo.client.SwapiClient;
+import com.example.demo.client.SwapiEntityStore;
+import com.example.demo.client.SwapiMetrics;
+import com.example.demo.client.SwapiPageReader;
+import com.example.demo.client.SwapiResilience;
+import com.example.demo.client.SwapiSearcher;
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.mirror.SwapiMirror;
 import com.example.demo.models.*;
+import com.example.demo.snapshot.InformationSnapshotStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.example.demo.StarshipController.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class StarshipControllerTest {
 
+    @Mock
+    private SwapiClient swapiClient;
+
     @Mock
     private RestTemplate restTemplate;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private SwapiMirror swapiMirror;
 
     private StarshipController starshipController;
 
+    private ExecutorService executor;
+
+    private InformationSnapshotStore snapshotStore;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SwapiMetrics swapiMetrics;
+
+    private SwapiEntityStore entityStore;
+
+    private SwapiSearcher swapiSearcher;
+
+    private InformationMetrics informationMetrics;
+
+    private InformationLimiter informationLimiter;
+
+    private InformationETags informationETags;
+
+    private InformationStream informationStream;
+
     @BeforeEach
     void beforeEach() {
         final String baseUrl = "https://swapi.dev/api";
         final String starshipSearchUrl = baseUrl + "/starships/?search=";
         final String peopleSearchUrl = baseUrl + "/people/?search=";
-        final String planetSearchUrl = baseUrl + "/planets/?search=";
-        this.starshipController = new StarshipController(this.restTemplate, this.objectMapper, starshipSearchUrl, peopleSearchUrl, planetSearchUrl);
+        this.executor = Executors.newFixedThreadPool(3);
+        this.snapshotStore = new InformationSnapshotStore(new ObjectMapper(), new SimpleMeterRegistry());
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.swapiMetrics = new SwapiMetrics(this.meterRegistry, new SwapiProperties());
+        this.entityStore = new SwapiEntityStore(new SwapiProperties(), this.meterRegistry);
+        this.swapiSearcher = new SwapiSearcher(this.swapiClient, this.executor, this.swapiMetrics, this.entityStore, new SwapiProperties());
+        this.informationMetrics = new InformationMetrics(this.meterRegistry, new SwapiProperties());
+        this.informationLimiter = new InformationLimiter(new SwapiProperties(), this.meterRegistry);
+        this.informationETags = new InformationETags(new SwapiProperties(), this.meterRegistry);
+        this.informationStream = new InformationStream(new SwapiProperties(), this.meterRegistry);
+        this.starshipController = new StarshipController(this.swapiSearcher, starshipSearchUrl, peopleSearchUrl, this.executor, new SwapiProperties(), this.snapshotStore, this.informationMetrics, this.informationLimiter, this.informationETags, this.informationStream);
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void testInformation_snapshot() throws IOException {
+        snapshotStore.update(Response.builder().crew("2").isLeiaOnPlanet("true").build());
+        StarshipController spyController = spy(starshipController);
+
+        final ResponseEntity<?> response = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null, null);
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(response.getHeaders().getContentType(), MediaType.APPLICATION_JSON);
+        assertEquals(response.getHeaders().getETag(), snapshotStore.current().eTag());
+        assertEquals("{\"starship\":{},\"crew\":\"2\",\"isLeiaOnPlanet\":\"true\"}",
+                new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        assertEquals(response.getHeaders().getContentLength(), ((byte[]) response.getBody()).length);
+        verify(spyController, never()).getStarshipInformation(any(InformationRequest.class));
+    }
+
+    @Test
+    void testInformation_noSnapshot() throws IOException {
+        StarshipController spyController = spy(starshipController);
+        doReturn(StarshipInformation.builder().crewCount("2").build()).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(false).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
+
+        final ResponseEntity<?> response = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null, null);
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(((Response) response.getBody()).getCrew(), "2");
+    }
+
+    @Test
+    void testInformation_snapshotNotModified() throws IOException {
+        snapshotStore.update(Response.builder().crew("2").isLeiaOnPlanet("true").build());
+
+        final ResponseEntity<?> response = starshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST,
+                "W/\"stale\", " + snapshotStore.current().eTag(), null);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(snapshotStore.current().eTag(), response.getHeaders().getETag());
+        assertEquals("max-age=30", response.getHeaders().getCacheControl());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void testInformation_notModifiedWithoutLookup() throws IOException {
+        StarshipController spyController = spy(starshipController);
+        doReturn(StarshipInformation.builder().crewCount("2").build()).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(false).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
+
+        final ResponseEntity<?> first = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null, null);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(InformationETags.eTag((Response) first.getBody()), first.getHeaders().getETag());
+        assertEquals("max-age=30", first.getHeaders().getCacheControl());
+
+        final ResponseEntity<?> revalidated = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST,
+                first.getHeaders().getETag(), null);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertNull(revalidated.getBody());
+        verify(spyController, times(1)).getStarshipInformation(any(InformationRequest.class));
+        assertEquals(1.0, meterRegistry.get("information.not.modified").counter().count());
+
+        final ResponseEntity<?> changed = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, "\"other\"", null);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+    }
+
+    @Test
+    void testInformation_failedLookupNotCached() throws IOException {
+        StarshipController spyController = spy(starshipController);
+        doThrow(new RuntimeException("SWAPI is down")).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(false).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
+
+        final ResponseEntity<?> response = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, "*", null);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertNull(response.getHeaders().getETag());
+        assertEquals("no-store", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void testInformation_snapshotCbor() throws IOException {
+        snapshotStore.update(Response.builder().crew("2").isLeiaOnPlanet("true").build());
+        String eTag = snapshotStore.current().eTag();
+
+        final ResponseEntity<?> response = starshipController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST,
+                eTag, "application/cbor");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_CBOR, response.getHeaders().getContentType());
+        assertEquals(InformationFormat.CBOR.eTag(eTag), response.getHeaders().getETag());
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary());
+        // The same fields as the JSON snapshot, the empty starship included
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(objectMapper.readTree(snapshotStore.current().body()),
+                InformationFormat.CBOR.mapper(objectMapper).readTree((byte[]) response.getBody()));
+    }
+
+    @Test
+    void testInformation_lookupSmile() throws IOException {
+        StarshipController spyController = spy(starshipController);
+        doReturn(StarshipInformation.builder().crewCount("2").build()).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(false).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
+        String accept = "application/json;q=0.5, application/x-jackson-smile";
+
+        final ResponseEntity<?> first = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST, null, accept);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(InformationFormat.SMILE.getMediaType(), first.getHeaders().getContentType());
+        assertEquals(InformationFormat.SMILE.eTag(InformationETags.eTag((Response) first.getBody())), first.getHeaders().getETag());
+        assertEquals(List.of(HttpHeaders.ACCEPT), first.getHeaders().getVary());
+
+        final ResponseEntity<?> revalidated = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST,
+                first.getHeaders().getETag(), accept);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertEquals(List.of(HttpHeaders.ACCEPT), revalidated.getHeaders().getVary());
+        // The Smile ETag does not validate the JSON representation
+        final ResponseEntity<?> json = spyController.information(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST,
+                first.getHeaders().getETag(), null);
+        assertEquals(HttpStatus.OK, json.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, json.getHeaders().getContentType());
     }
 
     @Test
@@ -53,13 +238,14 @@ class StarshipControllerTest {
                 .crewCount("2")
                 .build();
 
-        doReturn(info).when(spyController).getStarship();
-        doReturn(true).when(spyController).isLeiaOnAlderaan();
+        doReturn(info).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(true).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
         final ResponseEntity<Response> response = spyController.getStarshipInformation();
         assertEquals(response.getStatusCode(), HttpStatus.OK);
         assertEquals(response.getBody().getCrew(), "2");
         assertEquals(response.getBody().getIsLeiaOnPlanet(), "true");
         assertEquals(response.getBody().getStarship(), Starship.builder().starshipClass("class").model("model").name("name").build());
+        assertEquals(1, meterRegistry.get("information.lookups").tag("endpoint", "single").tag("outcome", "ok").timer().count());
     }
 
     @Test
@@ -76,8 +262,8 @@ class StarshipControllerTest {
                 .crewCount("0")
                 .build();
 
-        doReturn(info).when(spyController).getStarship();
-        doReturn(true).when(spyController).isLeiaOnAlderaan();
+        doReturn(info).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(true).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
         final ResponseEntity<Response> response = spyController.getStarshipInformation();
         assertEquals(response.getStatusCode(), HttpStatus.OK);
         assertEquals(response.getBody().getCrew(), "0");
@@ -100,28 +286,293 @@ class StarshipControllerTest {
                 .crewCount("2")
                 .build();
 
-        doThrow(new IOException("Error!!")).when(spyController).getStarship();
+        doThrow(new IOException("Error!!")).when(spyController).getStarship(DEATH_START_CONST);
+        final ResponseEntity<Response> response = spyController.getStarshipInformation();
+        assertEquals(response.getStatusCode(), HttpStatus.INTERNAL_SERVER_ERROR);
+        assertEquals(response.getBody().getCrew(), "0");
+        assertEquals(response.getBody().getIsLeiaOnPlanet(), "false");
+        assertEquals(response.getBody().getStarship(), null);
+        assertEquals(1, meterRegistry.get("information.lookups").tag("endpoint", "single").tag("outcome", "internal_server_error").timer().count());
+        assertEquals(0, meterRegistry.get("information.lookups").tag("endpoint", "single").tag("outcome", "ok").timer().count());
+    }
+
+    @Test
+    void testGetStarshipInformation_deadlineExceeded() throws IOException {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getRequest().setTimeout(Duration.ofMillis(50));
+        StarshipController spyController = spy(new StarshipController(this.swapiSearcher,
+                "https://swapi.dev/api/starships/?search=", "https://swapi.dev/api/people/?search=",
+                this.executor, swapiProperties, this.snapshotStore, this.informationMetrics, this.informationLimiter, this.informationETags, this.informationStream));
+
+        doAnswer(invocation -> {
+            Thread.sleep(5000);
+            return StarshipInformation.builder().build();
+        }).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(true).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
         final ResponseEntity<Response> response = spyController.getStarshipInformation();
         assertEquals(response.getStatusCode(), HttpStatus.INTERNAL_SERVER_ERROR);
         assertEquals(response.getBody().getCrew(), "0");
         assertEquals(response.getBody().getIsLeiaOnPlanet(), "false");
         assertEquals(response.getBody().getStarship(), null);
     }
+
+    @Test
+    void testGetStarshipInformation_concurrentRequestsShareUpstreamCalls() throws Exception {
+        final int requests = 50;
+        Map<String, byte[]> pages = Map.of(
+                "https://swapi.dev/api/starships/?search=Death%20Star",
+                "{\"results\":[{\"name\":\"Death Star\",\"crew\":\"342,953\"}]}".getBytes(StandardCharsets.UTF_8),
+                "https://swapi.dev/api/people/?search=Leia%20Organa",
+                "{\"results\":[{\"name\":\"Leia Organa\",\"homeworld\":\"https://swapi.dev/api/planets/2/\"}]}".getBytes(StandardCharsets.UTF_8),
+                "https://swapi.dev/api/planets/2/",
+                "{\"name\":\"Alderaan\",\"url\":\"https://swapi.dev/api/planets/2/\"}".getBytes(StandardCharsets.UTF_8));
+        Map<String, AtomicInteger> upstreamCalls = new ConcurrentHashMap<>();
+        CountDownLatch releaseUpstream = new CountDownLatch(1);
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    String url = invocation.<URI>getArgument(0).toString();
+                    upstreamCalls.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+                    assertTrue(releaseUpstream.await(10, TimeUnit.SECONDS));
+                    return invocation.<ResponseExtractor<?>>getArgument(3)
+                            .extractData(new MockClientHttpResponse(pages.get(url), HttpStatus.OK));
+                });
+        // Every starship and person search but the first of each joins the one in flight
+        CountDownLatch searchesJoined = new CountDownLatch((requests - 1) * 2);
+        SwapiMetrics countingSwapiMetrics = spy(this.swapiMetrics);
+        doAnswer(invocation -> {
+            searchesJoined.countDown();
+            return invocation.callRealMethod();
+        }).when(countingSwapiMetrics).joined(any());
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        swapiProperties.getLimit().setEnabled(false);
+        ExecutorService swapiExecutor = Executors.newFixedThreadPool(requests * 3);
+        ExecutorService swapiCallExecutor = Executors.newFixedThreadPool(requests * 3);
+        ExecutorService callers = Executors.newFixedThreadPool(requests);
+        try {
+            SwapiClient realSwapiClient = new SwapiClient(this.restTemplate, new SwapiPageReader(new ObjectMapper()), swapiProperties,
+                    swapiExecutor, swapiCallExecutor, this.meterRegistry, countingSwapiMetrics, this.swapiMirror,
+                    new SwapiResilience(this.meterRegistry, swapiProperties), new SwapiCacheLog(new ObjectMapper(), swapiProperties, this.meterRegistry));
+            StarshipController controller = new StarshipController(new SwapiSearcher(realSwapiClient, swapiExecutor, this.swapiMetrics,
+                    new SwapiEntityStore(swapiProperties, this.meterRegistry), swapiProperties),
+                    "https://swapi.dev/api/starships/?search=", "https://swapi.dev/api/people/?search=",
+                    swapiExecutor, swapiProperties, this.snapshotStore, this.informationMetrics,
+                    new InformationLimiter(swapiProperties, this.meterRegistry), this.informationETags, this.informationStream);
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ResponseEntity<Response>>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                responses.add(callers.submit(() -> {
+                    start.await();
+                    return controller.getStarshipInformation();
+                }));
+            }
+            start.countDown();
+            assertTrue(searchesJoined.await(10, TimeUnit.SECONDS));
+            releaseUpstream.countDown();
+
+            for (Future<ResponseEntity<Response>> response : responses) {
+                assertEquals(HttpStatus.OK, response.get(10, TimeUnit.SECONDS).getStatusCode());
+                assertEquals("342,953", response.get().getBody().getCrew());
+                assertEquals("true", response.get().getBody().getIsLeiaOnPlanet());
+            }
+            assertEquals(pages.keySet(), upstreamCalls.keySet());
+            upstreamCalls.values().forEach(calls -> assertEquals(1, calls.get()));
+            assertEquals(requests - 1, meterRegistry.get("swapi.searches.joined").tag("route", "starships").counter().count());
+        } finally {
+            callers.shutdownNow();
+            swapiExecutor.shutdownNow();
+            swapiCallExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInformation_parameterizedSkipsSnapshot() throws IOException {
+        snapshotStore.update(Response.builder().crew("2").isLeiaOnPlanet("true").build());
+        StarshipController spyController = spy(starshipController);
+        doReturn(StarshipInformation.builder().crewCount("47,060").build()).when(spyController).getStarship("Star Destroyer");
+        doReturn(false).when(spyController).isPersonOnPlanet("Luke Skywalker", ALDERAAN_PLANET_CONST);
+
+        final ResponseEntity<?> response = spyController.information("Star Destroyer", "Luke Skywalker", ALDERAAN_PLANET_CONST, null, null);
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(((Response) response.getBody()).getCrew(), "47,060");
+        assertEquals(((Response) response.getBody()).getIsLeiaOnPlanet(), "false");
+    }
+
+    @Test
+    void testGetBatchInformation() throws IOException {
+        StarshipController spyController = spy(starshipController);
+        doReturn(StarshipInformation.builder().crewCount("342,953").build()).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(StarshipInformation.builder().crewCount("47,060").build()).when(spyController).getStarship("Star Destroyer");
+        doReturn("https://swapi.dev/api/planets/2/").when(spyController).getHomeworld(LEIA_NAME_CONST);
+        doReturn("https://swapi.dev/api/planets/1/").when(spyController).getHomeworld("Luke Skywalker");
+        when(swapiClient.get("https://swapi.dev/api/planets/1/", PlanetResponse.class))
+                .thenReturn(PlanetResponse.builder().name("Tatooine").url("https://swapi.dev/api/planets/1/").build());
+        when(swapiClient.get("https://swapi.dev/api/planets/2/", PlanetResponse.class))
+                .thenReturn(PlanetResponse.builder().name(ALDERAAN_PLANET_CONST).url("https://swapi.dev/api/planets/2/").build());
+
+        final ResponseEntity<List<BatchItemResponse>> response = spyController.getBatchInformation(List.of(
+                new InformationRequest(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST),
+                new InformationRequest("Star Destroyer", "Luke Skywalker", ALDERAAN_PLANET_CONST),
+                new InformationRequest(null, null, null),
+                new InformationRequest("Star Destroyer", LEIA_NAME_CONST, null)));
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(List.of("342,953", "47,060", "342,953", "47,060"),
+                response.getBody().stream().map(item -> item.getResponse().getCrew()).toList());
+        assertEquals(List.of("true", "false", "true", "true"),
+                response.getBody().stream().map(item -> item.getResponse().getIsLeiaOnPlanet()).toList());
+        response.getBody().forEach(item -> assertEquals(200, item.getStatus()));
+        // Every distinct name is looked up once
+        verify(spyController, times(1)).getStarship(DEATH_START_CONST);
+        verify(spyController, times(1)).getStarship("Star Destroyer");
+        verify(spyController, times(1)).getHomeworld(LEIA_NAME_CONST);
+        // Every distinct homeworld is followed once
+        verify(swapiClient, times(1)).get("https://swapi.dev/api/planets/1/", PlanetResponse.class);
+        verify(swapiClient, times(1)).get("https://swapi.dev/api/planets/2/", PlanetResponse.class);
+        // The batch is timed once, apart from the single lookups
+        assertEquals(1, meterRegistry.get("information.lookups").tag("endpoint", "batch").tag("outcome", "ok").timer().count());
+        assertEquals(0, meterRegistry.get("information.lookups").tag("endpoint", "single").tag("outcome", "ok").timer().count());
+    }
+
+    @Test
+    void testGetBatchInformation_itemFailure() throws IOException {
+        StarshipController spyController = spy(starshipController);
+        doReturn(StarshipInformation.builder().crewCount("342,953").build()).when(spyController).getStarship(DEATH_START_CONST);
+        doThrow(new IOException("Error!!")).when(spyController).getStarship("Executor");
+        doReturn("https://swapi.dev/api/planets/2/").when(spyController).getHomeworld(LEIA_NAME_CONST);
+        entityStore.record(PlanetResponse.builder().name(ALDERAAN_PLANET_CONST).url("https://swapi.dev/api/planets/2/").build());
+
+        final ResponseEntity<List<BatchItemResponse>> response = spyController.getBatchInformation(List.of(
+                new InformationRequest("Executor", LEIA_NAME_CONST, ALDERAAN_PLANET_CONST),
+                new InformationRequest(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST)));
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        BatchItemResponse failed = response.getBody().get(0);
+        assertEquals(500, failed.getStatus());
+        assertEquals("Error!!", failed.getError());
+        assertEquals("0", failed.getResponse().getCrew());
+        assertEquals("false", failed.getResponse().getIsLeiaOnPlanet());
+        BatchItemResponse succeeded = response.getBody().get(1);
+        assertEquals(200, succeeded.getStatus());
+        assertNull(succeeded.getError());
+        assertEquals("342,953", succeeded.getResponse().getCrew());
+        assertEquals(1, meterRegistry.get("information.lookups").tag("endpoint", "batch").tag("outcome", "internal_server_error").timer().count());
+        assertEquals(0, meterRegistry.get("information.lookups").tag("endpoint", "batch").tag("outcome", "ok").timer().count());
+    }
+
+    @Test
+    void testGetBatchInformation_homeworldFailure() throws IOException {
+        StarshipController spyController = spy(starshipController);
+        doReturn(StarshipInformation.builder().crewCount("342,953").build()).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn("https://swapi.dev/api/planets/2/").when(spyController).getHomeworld(LEIA_NAME_CONST);
+        doReturn("https://swapi.dev/api/planets/1/").when(spyController).getHomeworld("Luke Skywalker");
+        when(swapiClient.get("https://swapi.dev/api/planets/1/", PlanetResponse.class))
+                .thenThrow(new UncheckedIOException(new IOException("Error!!")));
+        when(swapiClient.get("https://swapi.dev/api/planets/2/", PlanetResponse.class))
+                .thenReturn(PlanetResponse.builder().name(ALDERAAN_PLANET_CONST).url("https://swapi.dev/api/planets/2/").build());
+
+        final ResponseEntity<List<BatchItemResponse>> response = spyController.getBatchInformation(List.of(
+                new InformationRequest(DEATH_START_CONST, "Luke Skywalker", ALDERAAN_PLANET_CONST),
+                new InformationRequest(DEATH_START_CONST, LEIA_NAME_CONST, ALDERAAN_PLANET_CONST)));
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        BatchItemResponse failed = response.getBody().get(0);
+        assertEquals(500, failed.getStatus());
+        assertEquals("java.io.IOException: Error!!", failed.getError());
+        // Only the lookup whose homeworld failed fails
+        BatchItemResponse succeeded = response.getBody().get(1);
+        assertEquals(200, succeeded.getStatus());
+        assertEquals("342,953", succeeded.getResponse().getCrew());
+        assertEquals("true", succeeded.getResponse().getIsLeiaOnPlanet());
+    }
+
+    @Test
+    void testGetBatchInformation_tooLarge() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getBatch().setMaxSize(1);
+        StarshipController controller = new StarshipController(this.swapiSearcher,
+                "https://swapi.dev/api/starships/?search=", "https://swapi.dev/api/people/?search=",
+                this.executor, swapiProperties, this.snapshotStore, this.informationMetrics, this.informationLimiter, this.informationETags, this.informationStream);
+
+        final ResponseEntity<List<BatchItemResponse>> response = controller.getBatchInformation(List.of(
+                new InformationRequest(), new InformationRequest()));
+        assertEquals(response.getStatusCode(), HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(swapiClient);
+    }
+
+    @Test
+    void testGetStarshipInformation_overLimit() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getLimit().setInitialLimit(1);
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, this.meterRegistry);
+        StarshipController controller = new StarshipController(this.swapiSearcher,
+                "https://swapi.dev/api/starships/?search=", "https://swapi.dev/api/people/?search=",
+                this.executor, swapiProperties, this.snapshotStore, this.informationMetrics, limiter, this.informationETags, this.informationStream);
+        InformationLimiter.Permit inFlight = limiter.tryAcquire(1);
+
+        final ResponseEntity<Response> response = controller.getStarshipInformation();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(Response.builder().build(), response.getBody());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, controller.getBatchInformation(List.of(new InformationRequest())).getStatusCode());
+        verifyNoInteractions(swapiClient);
+
+        inFlight.cancelled();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testLookupInBackground_outsideLimitAndMetrics() throws IOException {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getLimit().setInitialLimit(1);
+        InformationLimiter limiter = new InformationLimiter(swapiProperties, this.meterRegistry);
+        StarshipController spyController = spy(new StarshipController(this.swapiSearcher,
+                "https://swapi.dev/api/starships/?search=", "https://swapi.dev/api/people/?search=",
+                this.executor, swapiProperties, this.snapshotStore, this.informationMetrics, limiter, this.informationETags, this.informationStream));
+        doReturn(StarshipInformation.builder().crewCount("2").build()).when(spyController).getStarship(DEATH_START_CONST);
+        doReturn(true).when(spyController).isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
+        InformationLimiter.Permit inFlight = limiter.tryAcquire(1);
+
+        final ResponseEntity<Response> response = spyController.lookupInBackground();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("2", response.getBody().getCrew());
+        assertEquals(0, meterRegistry.get("information.lookups").tag("endpoint", "single").tag("outcome", "ok").timer().count());
+
+        inFlight.cancelled();
+    }
+
+    @Test
+    void testInformation_namesEncodedInSearchUrls() throws IOException {
+        final String starship = "Death {Star} & 100%";
+        final String person = "Leia&page=9";
+        when(swapiClient.search("https://swapi.dev/api/starships/?search=Death%20%7BStar%7D%20%26%20100%25",
+                SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(SwapiStarshipResponse.builder().results(List.of(StarshipResponse.builder().name(starship).crew("2").build())).build());
+        when(swapiClient.search("https://swapi.dev/api/people/?search=Leia%26page%3D9", SwapiPersonResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(SwapiPersonResponse.builder().results(List.of(Person.builder().name(person).homeworld("https://swapi.dev/api/planets/2/").build())).build());
+        when(swapiClient.get("https://swapi.dev/api/planets/2/", PlanetResponse.class))
+                .thenReturn(PlanetResponse.builder().name(ALDERAAN_PLANET_CONST).url("https://swapi.dev/api/planets/2/").build());
+
+        final ResponseEntity<?> response = starshipController.information(starship, person, ALDERAAN_PLANET_CONST, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(starship, ((Response) response.getBody()).getStarship().getName());
+        assertEquals("2", ((Response) response.getBody()).getCrew());
+        assertEquals("true", ((Response) response.getBody()).getIsLeiaOnPlanet());
+    }
+
     @Test
     void testGetStarship() throws IOException {
         // Mock the response for the external API call
-        String starshipUrl = "https://swapi.dev/api/starships/?search=Death Star";
+        String starshipUrl = "https://swapi.dev/api/starships/?search=Death%20Star";
         SwapiStarshipResponse starshipResponse = SwapiStarshipResponse.builder().results(List.of(
                 StarshipResponse.builder().name("Death Star").starshipClass("Star Destroyer").model("Model").crew("2").build())).build();
 
-        when(restTemplate.getForEntity(starshipUrl, Object.class))
-                .thenReturn(new ResponseEntity<>(starshipResponse, HttpStatus.OK));
-        when(objectMapper.writeValueAsString(starshipResponse)).thenReturn("planet");
-        when(objectMapper.readValue("planet", SwapiStarshipResponse.class))
-                .thenReturn(starshipResponse);
+        when(swapiClient.search(starshipUrl, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS)).thenReturn(starshipResponse);
 
         // Perform the test
-        StarshipInformation starshipInformation = starshipController.getStarship();
+        StarshipInformation starshipInformation = starshipController.getStarship(DEATH_START_CONST);
 
         // Assertions
         assertEquals("2", starshipInformation.getCrewCount());
@@ -131,71 +582,100 @@ class StarshipControllerTest {
     }
 
     @Test
-    void testIsLeiaOnAlderaan() throws IOException {
+    void testGetStarship_exactNameAmongFuzzyMatches() throws IOException {
+        String starshipUrl = "https://swapi.dev/api/starships/?search=Death%20Star";
+        SwapiStarshipResponse starshipResponse = SwapiStarshipResponse.builder().results(List.of(
+                StarshipResponse.builder().name("Death Star II").build(), StarshipResponse.builder().name("Death Star").crew("342,953").build())).build();
+        when(swapiClient.search(starshipUrl, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS)).thenReturn(starshipResponse);
+
+        StarshipInformation starshipInformation = starshipController.getStarship(DEATH_START_CONST);
+
+        assertEquals("Death Star", starshipInformation.getStarship().getName());
+        assertEquals("342,953", starshipInformation.getCrewCount());
+    }
+
+    @Test
+    void testGetStarship_noExactName() throws IOException {
+        String starshipUrl = "https://swapi.dev/api/starships/?search=Death%20Star";
+        SwapiStarshipResponse starshipResponse = SwapiStarshipResponse.builder().results(List.of(
+                StarshipResponse.builder().name("Death Star II").build())).build();
+        when(swapiClient.search(starshipUrl, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS)).thenReturn(starshipResponse);
+
+        StarshipInformation starshipInformation = starshipController.getStarship(DEATH_START_CONST);
+
+        assertNull(starshipInformation.getStarship());
+        assertEquals(1.0, meterRegistry.get("swapi.searches.unmatched").tag("route", "starships").tag("reason", "ambiguous").counter().count());
+    }
+
+    @Test
+    void testIsPersonOnPlanet() throws IOException {
         // Create test data
         SwapiPersonResponse swapiPersonResponse = SwapiPersonResponse.builder()
                 .results(List.of(Person.builder()
+                        .name(LEIA_NAME_CONST)
                         .homeworld("https://swapi.dev/api/planets/2/")
                         .build()))
                 .build();
-        SwapiPlanetResponse swapiPlanetResponse = SwapiPlanetResponse.builder()
-                .results(List.of(PlanetResponse.builder()
-                        .url("https://swapi.dev/api/planets/2/")
-                        .build()))
-                .build();
 
-        // Mock the responses from the REST API calls
-        when(restTemplate.getForEntity("https://swapi.dev/api/planets/?search=Alderaan", Object.class))
-                .thenReturn(new ResponseEntity<>(swapiPlanetResponse, HttpStatus.OK));
-        when(objectMapper.writeValueAsString(swapiPlanetResponse)).thenReturn("planet");
-        when(objectMapper.readValue("planet", SwapiPlanetResponse.class))
-                .thenReturn(swapiPlanetResponse);
-
-        when(restTemplate.getForEntity("https://swapi.dev/api/people/?search=Leia Organa", Object.class))
-                .thenReturn(new ResponseEntity<>(swapiPersonResponse, HttpStatus.OK));
-        when(objectMapper.writeValueAsString(swapiPersonResponse)).thenReturn("");
-        when(objectMapper.readValue("", SwapiPersonResponse.class))
+        // Mock the response from the SWAPI search and the homeworld it links to
+        when(swapiClient.search("https://swapi.dev/api/people/?search=Leia%20Organa", SwapiPersonResponse.class, SwapiSearcher.ALL_RESULTS))
                 .thenReturn(swapiPersonResponse);
+        when(swapiClient.get("https://swapi.dev/api/planets/2/", PlanetResponse.class))
+                .thenReturn(PlanetResponse.builder().name(ALDERAAN_PLANET_CONST).url("https://swapi.dev/api/planets/2/").build());
 
         // Call the method under test
-        boolean isLeiaOnAlderaan = starshipController.isLeiaOnAlderaan();
+        boolean isLeiaOnAlderaan = starshipController.isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
 
         // Assertion
         assertTrue(isLeiaOnAlderaan);
     }
 
-
     @Test
-    void testIsLeiaOnAlderaan_False() throws IOException {
-        // Create test data
+    void testIsPersonOnPlanet_homeworldFromEntityStore() throws IOException {
         SwapiPersonResponse swapiPersonResponse = SwapiPersonResponse.builder()
                 .results(List.of(Person.builder()
-                        .homeworld("https://swapi.dev/api/planets/3/")
+                        .name(LEIA_NAME_CONST)
+                        .homeworld("https://swapi.dev/api/planets/2")
                         .build()))
                 .build();
         SwapiPlanetResponse swapiPlanetResponse = SwapiPlanetResponse.builder()
                 .results(List.of(PlanetResponse.builder()
+                        .name(ALDERAAN_PLANET_CONST)
                         .url("https://swapi.dev/api/planets/2/")
                         .build()))
                 .build();
+        when(swapiClient.search("https://swapi.dev/api/people/?search=Leia%20Organa", SwapiPersonResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(swapiPersonResponse);
+        // A planet seen in a search is kept by its URL
+        entityStore.record(swapiPlanetResponse.getResults());
+
+        assertTrue(starshipController.isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST));
+        assertTrue(starshipController.isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST));
+
+        verify(swapiClient, never()).get(anyString(), eq(PlanetResponse.class));
+        assertEquals(1.0, entityStore.hitRatio());
+    }
+
+    @Test
+    void testIsPersonOnPlanet_False() throws IOException {
+        // Create test data
+        SwapiPersonResponse swapiPersonResponse = SwapiPersonResponse.builder()
+                .results(List.of(Person.builder()
+                        .name(LEIA_NAME_CONST)
+                        .homeworld("https://swapi.dev/api/planets/3/")
+                        .build()))
+                .build();
 
-        // Mock the responses from the REST API calls
-        when(restTemplate.getForEntity("https://swapi.dev/api/planets/?search=Alderaan", Object.class))
-                .thenReturn(new ResponseEntity<>(swapiPlanetResponse, HttpStatus.OK));
-        when(objectMapper.writeValueAsString(swapiPlanetResponse)).thenReturn("planet");
-        when(objectMapper.readValue("planet", SwapiPlanetResponse.class))
-                .thenReturn(swapiPlanetResponse);
-
-        when(restTemplate.getForEntity("https://swapi.dev/api/people/?search=Leia Organa", Object.class))
-                .thenReturn(new ResponseEntity<>(swapiPersonResponse, HttpStatus.OK));
-        when(objectMapper.writeValueAsString(swapiPersonResponse)).thenReturn("");
-        when(objectMapper.readValue("", SwapiPersonResponse.class))
+        // Mock the response from the SWAPI search and the homeworld it links to
+        when(swapiClient.search("https://swapi.dev/api/people/?search=Leia%20Organa", SwapiPersonResponse.class, SwapiSearcher.ALL_RESULTS))
                 .thenReturn(swapiPersonResponse);
+        when(swapiClient.get("https://swapi.dev/api/planets/3/", PlanetResponse.class))
+                .thenReturn(PlanetResponse.builder().name("Yavin IV").url("https://swapi.dev/api/planets/3/").build());
 
         // Call the method under test
-        boolean isLeiaOnAlderaan = starshipController.isLeiaOnAlderaan();
+        boolean isLeiaOnAlderaan = starshipController.isPersonOnPlanet(LEIA_NAME_CONST, ALDERAAN_PLANET_CONST);
 
         // Assertion
         assertFalse(isLeiaOnAlderaan);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.mirror.SwapiMirror;
+import com.example.demo.models.PlanetResponse;
+import com.example.demo.models.StarshipResponse;
+import com.example.demo.models.SwapiStarshipResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveSwapiClientTest {
+
+    private static final String STARSHIP_URL = "https://swapi.dev/api/starships/?search=Death%20Star";
+
+    @Mock
+    private SwapiMirror swapiMirror;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private String starshipPage;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        try (InputStream page = getClass().getResourceAsStream("/swapi/starships-search.json")) {
+            this.starshipPage = new String(page.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testSearch() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        ReactiveSwapiClient swapiClient = newSwapiClient(swapiProperties, Duration.ZERO);
+
+        SwapiStarshipResponse response = swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).block();
+
+        assertEquals(2, response.getResults().size());
+        assertEquals("Death Star", response.getResults().get(0).getName());
+        assertEquals("342,953", response.getResults().get(0).getCrew());
+        assertEquals("Star Destroyer", response.getResults().get(1).getName());
+    }
+
+    @Test
+    void testSearch_concurrentSearchesShareOneCall() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        ReactiveSwapiClient swapiClient = newSwapiClient(swapiProperties, Duration.ofMillis(200));
+
+        List<SwapiStarshipResponse> responses = Flux.range(0, 20)
+                .flatMap(i -> swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(20, responses.size());
+        assertEquals(1, upstreamCalls.get());
+
+        // Nothing is kept once the shared call has completed
+        swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).block(Duration.ofSeconds(5));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testSearch_cached() {
+        ReactiveSwapiClient swapiClient = newSwapiClient(new SwapiProperties(), Duration.ZERO);
+
+        SwapiStarshipResponse first = swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).block();
+        SwapiStarshipResponse second = swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).block();
+
+        assertSame(first, second);
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "swapi.search").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testSearch_mirrorHit() {
+        SwapiStarshipResponse mirrored = SwapiStarshipResponse.builder()
+                .results(List.of(StarshipResponse.builder().name("Death Star").build())).build();
+        when(swapiMirror.isEnabled()).thenReturn(true);
+        when(swapiMirror.search(STARSHIP_URL, SwapiStarshipResponse.class, 2)).thenReturn(mirrored);
+        ReactiveSwapiClient swapiClient = newSwapiClient(new SwapiProperties(), Duration.ZERO);
+
+        assertSame(mirrored, swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).block());
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testGet_mirrorHit() {
+        PlanetResponse mirrored = PlanetResponse.builder().name("Alderaan").url("https://swapi.dev/api/planets/2/").build();
+        when(swapiMirror.isEnabled()).thenReturn(true);
+        when(swapiMirror.findByUrl("https://swapi.dev/api/planets/2/", PlanetResponse.class)).thenReturn(mirrored);
+        ReactiveSwapiClient swapiClient = newSwapiClient(new SwapiProperties(), Duration.ZERO);
+
+        assertSame(mirrored, swapiClient.get("https://swapi.dev/api/planets/2/", PlanetResponse.class).block());
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testSearch_hedgeWins() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        swapiProperties.getHedge().setEnabled(true);
+        swapiProperties.getHedge().setMinDelay(Duration.ofMillis(10));
+        SwapiResilience swapiResilience = new SwapiResilience(this.meterRegistry, swapiProperties);
+        for (int i = 0; i < 20; i++) {
+            SwapiResilience.Permit permit = swapiResilience.acquire(SwapiStarshipResponse.class);
+            permit.attemptSucceeded(Duration.ofMillis(20).toNanos());
+            permit.succeeded(false);
+        }
+        // The primary call hangs, the hedge answers straight away
+        ReactiveSwapiClient swapiClient = newSwapiClient(swapiProperties, swapiResilience,
+                () -> upstreamCalls.get() == 1 ? Duration.ofSeconds(30) : Duration.ZERO);
+
+        SwapiStarshipResponse response = swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).block(Duration.ofSeconds(5));
+
+        assertEquals("Death Star", response.getResults().get(0).getName());
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("swapi.hedges").tag("route", "starships").tag("winner", "hedge").counter().count());
+        // The cancelled primary is neither an error nor a latency sample for the hedging delay
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("outcome", "CANCELLED").timer().count());
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("outcome", "SUCCESS").timer().count());
+        assertEquals(21, meterRegistry.get("swapi.hedge.latency").tag("route", "starships").timer().count());
+    }
+
+    private ReactiveSwapiClient newSwapiClient(SwapiProperties swapiProperties, Duration latency) {
+        return newSwapiClient(swapiProperties, new SwapiResilience(this.meterRegistry, swapiProperties), () -> latency);
+    }
+
+    private ReactiveSwapiClient newSwapiClient(SwapiProperties swapiProperties, SwapiResilience swapiResilience, Supplier<Duration> latency) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.delay(latency.get())
+                            .map(tick -> ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .body(starshipPage)
+                                    .build());
+                })
+                .build();
+        return new ReactiveSwapiClient(webClient, new SwapiPageReader(new ObjectMapper()), swapiProperties, this.meterRegistry,
+                new SwapiMetrics(this.meterRegistry, swapiProperties), this.swapiMirror, swapiResilience,
+                new SwapiCacheLog(new ObjectMapper(), swapiProperties, this.meterRegistry));
+    }
+}
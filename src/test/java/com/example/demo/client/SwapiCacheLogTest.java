@@ -0,0 +1,135 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Person;
+import com.example.demo.models.StarshipResponse;
+import com.example.demo.models.SwapiPersonResponse;
+import com.example.demo.models.SwapiStarshipResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiCacheLogTest {
+
+    private static final SwapiSearch<SwapiStarshipResponse> DEATH_STAR =
+            new SwapiSearch<>("https://swapi.dev/api/starships/?search=Death%20Star", SwapiStarshipResponse.class, 2);
+
+    private static final SwapiSearch<SwapiPersonResponse> LEIA =
+            new SwapiSearch<>("https://swapi.dev/api/people/?search=Leia%20Organa", SwapiPersonResponse.class, 2);
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SwapiProperties swapiProperties = new SwapiProperties();
+
+    @BeforeEach
+    void beforeEach() {
+        swapiProperties.getCache().getPersistence().setEnabled(true);
+        swapiProperties.getCache().getPersistence().setFile(directory.resolve("swapi-cache.log"));
+    }
+
+    @Test
+    void testRestore_latestResultOfEverySearch() throws Exception {
+        SwapiCacheLog cacheLog = open();
+        cacheLog.append(DEATH_STAR, new SwapiCachedPage(starships("Death Star"), new SwapiValidators("\"v1\"", null)));
+        cacheLog.append(LEIA, new SwapiCachedPage(people("Leia Organa"), null));
+        cacheLog.append(DEATH_STAR, new SwapiCachedPage(starships("Death Star II"), new SwapiValidators("\"v2\"", null)));
+        cacheLog.awaitWrites();
+        cacheLog.close();
+        assertEquals(3, Files.readAllLines(logFile()).size());
+
+        Map<SwapiSearch<?>, SwapiCachedPage> restored = open().restore();
+
+        assertEquals(2, restored.size());
+        SwapiCachedPage deathStar = restored.get(DEATH_STAR);
+        assertEquals("Death Star II", ((SwapiStarshipResponse) deathStar.page()).getResults().get(0).getName());
+        assertEquals(new SwapiValidators("\"v2\"", null), deathStar.validators());
+        assertEquals("Leia Organa", ((SwapiPersonResponse) restored.get(LEIA).page()).getResults().get(0).getName());
+        assertEquals(2, Files.readAllLines(logFile()).size());
+    }
+
+    @Test
+    void testRestore_dropsExpired() throws Exception {
+        swapiProperties.getCache().setTtl(Duration.ofMinutes(10));
+        swapiProperties.getCache().setMaxStale(Duration.ofHours(1));
+        SwapiCacheLog cacheLog = open();
+        long now = System.currentTimeMillis();
+        cacheLog.append(DEATH_STAR, new SwapiCachedPage(starships("Death Star"), null, now - Duration.ofMinutes(71).toMillis()));
+        cacheLog.append(LEIA, new SwapiCachedPage(people("Leia Organa"), null, now - Duration.ofMinutes(69).toMillis()));
+        cacheLog.awaitWrites();
+        cacheLog.close();
+
+        Map<SwapiSearch<?>, SwapiCachedPage> restored = open().restore();
+
+        // A stale result within its max-stale is kept, to be served while it is revalidated
+        assertEquals(List.of(LEIA), List.copyOf(restored.keySet()));
+    }
+
+    @Test
+    void testRestore_lineCutShortByCrash() throws Exception {
+        SwapiCacheLog cacheLog = open();
+        cacheLog.append(DEATH_STAR, new SwapiCachedPage(starships("Death Star"), null));
+        cacheLog.awaitWrites();
+        cacheLog.close();
+        Files.writeString(logFile(), "{\"route\":\"people\",\"url\":\"https://swapi.dev/api/pe", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        SwapiCacheLog restarted = open();
+
+        assertEquals(List.of(DEATH_STAR), List.copyOf(restarted.restore().keySet()));
+        assertTrue(restarted.restore().isEmpty());
+        assertEquals(0.0, meterRegistry.get("swapi.cache.log.failures").counter().count());
+    }
+
+    @Test
+    void testCompact_failureKeepsAppending() throws Exception {
+        SwapiCacheLog cacheLog = open();
+        cacheLog.append(DEATH_STAR, new SwapiCachedPage(starships("Death Star"), null));
+        cacheLog.awaitWrites();
+        // The compacted log cannot be written where a directory is in the way
+        Files.createDirectory(logFile().resolveSibling(logFile().getFileName() + ".tmp"));
+
+        cacheLog.awaitCompaction();
+        cacheLog.append(LEIA, new SwapiCachedPage(people("Leia Organa"), null));
+        cacheLog.awaitWrites();
+        cacheLog.close();
+
+        assertEquals(1.0, meterRegistry.get("swapi.cache.log.failures").counter().count());
+        assertEquals(List.of(DEATH_STAR, LEIA), List.copyOf(open().restore().keySet()));
+    }
+
+    private SwapiCacheLog open() throws Exception {
+        SwapiCacheLog cacheLog = new SwapiCacheLog(objectMapper, swapiProperties, meterRegistry);
+        cacheLog.init();
+        return cacheLog;
+    }
+
+    private Path logFile() {
+        return swapiProperties.getCache().getPersistence().getFile();
+    }
+
+    private static SwapiStarshipResponse starships(String name) {
+        return SwapiStarshipResponse.builder().count(1)
+                .results(List.of(StarshipResponse.builder().name(name).crew("342,953").build())).build();
+    }
+
+    private static SwapiPersonResponse people(String name) {
+        return SwapiPersonResponse.builder().count(1)
+                .results(List.of(Person.builder().name(name).homeworld("https://swapi.dev/api/planets/2/").build())).build();
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.mirror.SwapiMirror;
+import com.example.demo.models.PlanetResponse;
+import com.example.demo.models.StarshipResponse;
+import com.example.demo.models.SwapiPersonResponse;
+import com.example.demo.models.SwapiStarshipResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwapiClientTest {
+
+    private static final String STARSHIP_URL = "https://swapi.dev/api/starships/?search=Death%20Star";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private SwapiMirror swapiMirror;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ExecutorService executor;
+
+    private ExecutorService callExecutor;
+
+    private SwapiClient swapiClient;
+
+    private byte[] starshipPage;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        this.executor = Executors.newFixedThreadPool(2);
+        this.callExecutor = Executors.newCachedThreadPool();
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        this.swapiClient = newSwapiClient(swapiProperties);
+        try (InputStream page = getClass().getResourceAsStream("/swapi/starships-search.json")) {
+            this.starshipPage = page.readAllBytes();
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.executor.shutdownNow();
+        this.callExecutor.shutdownNow();
+    }
+
+    @Test
+    void testSearch() {
+        stubSearch(STARSHIP_URL);
+
+        SwapiStarshipResponse response = swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+
+        assertEquals(2, response.getResults().size());
+        assertEquals("Death Star", response.getResults().get(0).getName());
+        assertEquals("Deep Space Mobile Battlestation", response.getResults().get(0).getStarshipClass());
+        assertEquals("DS-1 Orbital Battle Station", response.getResults().get(0).getModel());
+        assertEquals("342,953", response.getResults().get(0).getCrew());
+        assertEquals("Star Destroyer", response.getResults().get(1).getName());
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("route", "starships").tag("status", "200").tag("outcome", "SUCCESS").timer().count());
+    }
+
+    @Test
+    void testSearch_serverError() {
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", HttpHeaders.EMPTY, null, null));
+
+        assertThrows(HttpServerErrorException.class, () -> swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2));
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("route", "starships").tag("status", "502").tag("outcome", "SERVER_ERROR").timer().count());
+    }
+
+    @Test
+    void testSearch_decodeFailure() {
+        byte[] notJson = "<html>Service Unavailable</html>".getBytes(StandardCharsets.UTF_8);
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    try {
+                        return invocation.<ResponseExtractor<?>>getArgument(3).extractData(new MockClientHttpResponse(notJson, HttpStatus.OK));
+                    } catch (IOException e) {
+                        // As RestTemplate reports failures to read the response
+                        throw new ResourceAccessException("I/O error on GET request", e);
+                    }
+                });
+
+        assertThrows(ResourceAccessException.class, () -> swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2));
+        assertEquals(1.0, meterRegistry.get("swapi.decode.failures").tag("route", "starships").counter().count());
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("status", "200").tag("outcome", "DECODE_ERROR").timer().count());
+    }
+
+    @Test
+    void testSearch_cached() {
+        SwapiClient cachingClient = newSwapiClient(new SwapiProperties());
+        stubSearch(STARSHIP_URL);
+
+        SwapiStarshipResponse first = cachingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+        SwapiStarshipResponse second = cachingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+
+        assertSame(first, second);
+        verify(restTemplate, times(1)).execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "swapi.search").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "swapi.search").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testSearch_staleWhileRevalidate() throws Exception {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setTtl(Duration.ofMillis(50));
+        SwapiClient cachingClient = newSwapiClient(swapiProperties);
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        byte[] refreshedPage = "{\"results\":[{\"name\":\"Death Star II\"}]}".getBytes(StandardCharsets.UTF_8);
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+                        .extractData(new MockClientHttpResponse(starshipPage, HttpStatus.OK)))
+                .thenAnswer(invocation -> {
+                    refreshStarted.countDown();
+                    assertTrue(releaseRefresh.await(5, TimeUnit.SECONDS));
+                    return invocation.<ResponseExtractor<?>>getArgument(3)
+                            .extractData(new MockClientHttpResponse(refreshedPage, HttpStatus.OK));
+                });
+
+        assertEquals("Death Star", cachingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).getResults().get(0).getName());
+        Thread.sleep(100);
+
+        // Past the TTL the stale page is served while the refresh is still running
+        assertEquals("Death Star", cachingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).getResults().get(0).getName());
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+        releaseRefresh.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String name;
+        do {
+            name = cachingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2).getResults().get(0).getName();
+        } while (!name.equals("Death Star II") && System.nanoTime() < deadline);
+        assertEquals("Death Star II", name);
+    }
+
+    @Test
+    void testSearch_revalidatesWithConditionalGet() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        // Stale as soon as it is fetched, so the first search starts the refresh
+        swapiProperties.getCache().setTtl(Duration.ofMillis(-1));
+        SwapiCacheLog cacheLog = mock(SwapiCacheLog.class);
+        SwapiClient cachingClient = newSwapiClient(swapiProperties, new SwapiResilience(this.meterRegistry, swapiProperties), cacheLog);
+        List<HttpHeaders> requests = new CopyOnWriteArrayList<>();
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    MockClientHttpRequest request = new MockClientHttpRequest();
+                    invocation.<RequestCallback>getArgument(2).doWithRequest(request);
+                    requests.add(request.getHeaders());
+                    MockClientHttpResponse response = requests.size() == 1
+                            ? new MockClientHttpResponse(starshipPage, HttpStatus.OK)
+                            : new MockClientHttpResponse(new byte[0], HttpStatus.NOT_MODIFIED);
+                    response.getHeaders().setETag("\"v1\"");
+                    response.getHeaders().set(HttpHeaders.LAST_MODIFIED, "Sun, 06 Nov 1994 08:49:37 GMT");
+                    return invocation.<ResponseExtractor<?>>getArgument(3).extractData(response);
+                });
+
+        SwapiStarshipResponse first = cachingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+        // A fetch is logged once it is over, after the call to SWAPI was timed
+        ArgumentCaptor<SwapiCachedPage> fetched = ArgumentCaptor.forClass(SwapiCachedPage.class);
+        verify(cacheLog, timeout(5000).times(2)).append(any(), fetched.capture());
+
+        assertEquals(2, requests.size());
+        assertNull(requests.get(0).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", requests.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("Sun, 06 Nov 1994 08:49:37 GMT", requests.get(1).getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("route", "starships").tag("status", "304").tag("outcome", "SUCCESS").timer().count());
+        // The unchanged page is kept rather than decoded again
+        assertSame(first, fetched.getAllValues().get(1).page());
+    }
+
+    @Test
+    void testSearch_restoredFromCacheLog(@TempDir Path directory) throws Exception {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().getPersistence().setEnabled(true);
+        swapiProperties.getCache().getPersistence().setFile(directory.resolve("swapi-cache.log"));
+        stubSearch(STARSHIP_URL);
+        SwapiCacheLog cacheLog = new SwapiCacheLog(this.objectMapper, swapiProperties, this.meterRegistry);
+        cacheLog.init();
+        newSwapiClient(swapiProperties, new SwapiResilience(this.meterRegistry, swapiProperties), cacheLog)
+                .search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+        cacheLog.close();
+
+        // After a restart the search is answered from the log without calling SWAPI again
+        SwapiCacheLog restartedLog = new SwapiCacheLog(this.objectMapper, swapiProperties, this.meterRegistry);
+        restartedLog.init();
+        SwapiStarshipResponse response = newSwapiClient(swapiProperties, new SwapiResilience(this.meterRegistry, swapiProperties), restartedLog)
+                .search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+        restartedLog.close();
+
+        assertEquals("Death Star", response.getResults().get(0).getName());
+        assertEquals("342,953", response.getResults().get(0).getCrew());
+        verify(restTemplate, times(1)).execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testSearch_mirrorHit() {
+        SwapiStarshipResponse mirrored = SwapiStarshipResponse.builder()
+                .results(List.of(StarshipResponse.builder().name("Death Star").build())).build();
+        when(swapiMirror.isEnabled()).thenReturn(true);
+        when(swapiMirror.search(STARSHIP_URL, SwapiStarshipResponse.class, 2)).thenReturn(mirrored);
+
+        assertSame(mirrored, swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testGet_mirrorHit() {
+        PlanetResponse mirrored = PlanetResponse.builder().name("Alderaan").url("https://swapi.dev/api/planets/2/").build();
+        when(swapiMirror.isEnabled()).thenReturn(true);
+        when(swapiMirror.findByUrl("https://swapi.dev/api/planets/2/", PlanetResponse.class)).thenReturn(mirrored);
+
+        assertSame(mirrored, swapiClient.get("https://swapi.dev/api/planets/2/", PlanetResponse.class));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testSearch_mirrorMissFallsBackToSwapi() {
+        when(swapiMirror.isEnabled()).thenReturn(true);
+        stubSearch(STARSHIP_URL);
+
+        SwapiStarshipResponse response = swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+
+        assertEquals("Death Star", response.getResults().get(0).getName());
+        verify(swapiMirror).search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+    }
+
+    @Test
+    void testSearch_circuitOpensAndFailsFast() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        swapiProperties.getBreaker().setSlidingWindowSize(2);
+        swapiProperties.getBreaker().setMinimumNumberOfCalls(2);
+        SwapiResilience swapiResilience = new SwapiResilience(this.meterRegistry, swapiProperties);
+        SwapiClient breakingClient = newSwapiClient(swapiProperties, swapiResilience);
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", HttpHeaders.EMPTY, null, null));
+
+        assertThrows(HttpServerErrorException.class, () -> breakingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2));
+        assertThrows(HttpServerErrorException.class, () -> breakingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2));
+        assertThrows(CallNotPermittedException.class, () -> breakingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2));
+
+        verify(restTemplate, times(2)).execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class));
+        assertEquals(1.0, meterRegistry.get("swapi.circuit.transitions").tag("route", "starships").tag("from", "CLOSED").tag("to", "OPEN").counter().count());
+        assertEquals(1.0, meterRegistry.get("swapi.circuit.rejections").tag("route", "starships").counter().count());
+        assertEquals(CircuitBreaker.State.OPEN, swapiResilience.circuitBreaker(SwapiStarshipResponse.class).getState());
+        // Other routes keep their own breaker
+        assertEquals(CircuitBreaker.State.CLOSED, swapiResilience.circuitBreaker(SwapiPersonResponse.class).getState());
+    }
+
+    @Test
+    void testSearch_hedgeWins() throws Exception {
+        SwapiClient hedgingClient = newHedgingSwapiClient();
+        CountDownLatch releasePrimary = new CountDownLatch(1);
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    releasePrimary.await(5, TimeUnit.SECONDS);
+                    throw new ResourceAccessException("Too late");
+                })
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+                        .extractData(new MockClientHttpResponse(starshipPage, HttpStatus.OK)));
+
+        try {
+            SwapiStarshipResponse response = hedgingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+
+            assertEquals("Death Star", response.getResults().get(0).getName());
+            assertEquals(1.0, meterRegistry.get("swapi.hedges").tag("route", "starships").tag("winner", "hedge").counter().count());
+        } finally {
+            releasePrimary.countDown();
+        }
+    }
+
+    @Test
+    void testSearch_hedgeLoserInterrupted() throws Exception {
+        SwapiClient hedgingClient = newHedgingSwapiClient();
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(5000);
+                        throw new ResourceAccessException("Too late");
+                    } catch (InterruptedException e) {
+                        // How RestTemplate reports a call interrupted while it waits on SWAPI
+                        throw new ResourceAccessException("Interrupted", new InterruptedIOException());
+                    }
+                })
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+                        .extractData(new MockClientHttpResponse(starshipPage, HttpStatus.OK)));
+
+        hedgingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+        callExecutor.shutdown();
+        assertTrue(callExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("outcome", "CANCELLED").timer().count());
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("outcome", "SUCCESS").timer().count());
+        assertNull(meterRegistry.find("swapi.requests").tag("outcome", "IO_ERROR").timer());
+        assertEquals(21, meterRegistry.get("swapi.hedge.latency").tag("route", "starships").timer().count());
+    }
+
+    @Test
+    void testSearch_hedgeLoserCompletesAnyway() throws Exception {
+        SwapiClient hedgingClient = newHedgingSwapiClient();
+        CountDownLatch releasePrimary = new CountDownLatch(1);
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    // Deaf to the interrupt, as a call already reading the response can be
+                    while (true) {
+                        try {
+                            releasePrimary.await();
+                            break;
+                        } catch (InterruptedException e) {
+                            // Keep waiting
+                        }
+                    }
+                    return invocation.<ResponseExtractor<?>>getArgument(3)
+                            .extractData(new MockClientHttpResponse(starshipPage, HttpStatus.OK));
+                })
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+                        .extractData(new MockClientHttpResponse(starshipPage, HttpStatus.OK)));
+
+        hedgingClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2);
+        releasePrimary.countDown();
+        callExecutor.shutdown();
+        assertTrue(callExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("outcome", "CANCELLED").timer().count());
+        assertEquals(1, meterRegistry.get("swapi.requests").tag("outcome", "SUCCESS").timer().count());
+        assertEquals(21, meterRegistry.get("swapi.hedge.latency").tag("route", "starships").timer().count());
+        assertEquals(1.0, meterRegistry.get("swapi.hedges").tag("route", "starships").tag("winner", "hedge").counter().count());
+    }
+
+    @Test
+    void testSearch_callDeadline() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        swapiProperties.getCall().setTimeout(Duration.ofMillis(100));
+        SwapiClient deadlineClient = newSwapiClient(swapiProperties);
+        CountDownLatch releaseUpstream = new CountDownLatch(1);
+        when(restTemplate.execute(eq(URI.create(STARSHIP_URL)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    releaseUpstream.await(5, TimeUnit.SECONDS);
+                    throw new ResourceAccessException("Too late");
+                });
+
+        try {
+            UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                    () -> deadlineClient.search(STARSHIP_URL, SwapiStarshipResponse.class, 2));
+            assertInstanceOf(InterruptedIOException.class, e.getCause());
+        } finally {
+            releaseUpstream.countDown();
+        }
+    }
+
+    /**
+     * A client hedging starship searches after 20ms, the latency its route has been seeded with.
+     */
+    private SwapiClient newHedgingSwapiClient() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getCache().setEnabled(false);
+        swapiProperties.getHedge().setEnabled(true);
+        swapiProperties.getHedge().setMinDelay(Duration.ofMillis(10));
+        SwapiResilience swapiResilience = new SwapiResilience(this.meterRegistry, swapiProperties);
+        for (int i = 0; i < 20; i++) {
+            SwapiResilience.Permit permit = swapiResilience.acquire(SwapiStarshipResponse.class);
+            permit.attemptSucceeded(TimeUnit.MILLISECONDS.toNanos(20));
+            permit.succeeded(false);
+        }
+        return newSwapiClient(swapiProperties, swapiResilience);
+    }
+
+    private SwapiClient newSwapiClient(SwapiProperties swapiProperties) {
+        return newSwapiClient(swapiProperties, new SwapiResilience(this.meterRegistry, swapiProperties));
+    }
+
+    private SwapiClient newSwapiClient(SwapiProperties swapiProperties, SwapiResilience swapiResilience) {
+        return newSwapiClient(swapiProperties, swapiResilience, new SwapiCacheLog(this.objectMapper, swapiProperties, this.meterRegistry));
+    }
+
+    private SwapiClient newSwapiClient(SwapiProperties swapiProperties, SwapiResilience swapiResilience, SwapiCacheLog cacheLog) {
+        return new SwapiClient(this.restTemplate, new SwapiPageReader(this.objectMapper), swapiProperties, this.executor, this.callExecutor,
+                this.meterRegistry, new SwapiMetrics(this.meterRegistry, swapiProperties), this.swapiMirror, swapiResilience, cacheLog);
+    }
+
+    private void stubSearch(String url) {
+        when(restTemplate.execute(eq(URI.create(url)), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+                        .extractData(new MockClientHttpResponse(starshipPage, HttpStatus.OK)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Person;
+import com.example.demo.models.PlanetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiEntityStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SwapiEntityStore entityStore = new SwapiEntityStore(new SwapiProperties(), meterRegistry);
+
+    @Test
+    void testGet_anyUrlForm() {
+        PlanetResponse alderaan = PlanetResponse.builder().name("Alderaan").url("https://swapi.dev/api/planets/2/").build();
+        entityStore.record(List.of(alderaan, PlanetResponse.builder().name("No url").build()));
+
+        assertSame(alderaan, entityStore.get("https://swapi.dev/api/planets/2/", PlanetResponse.class));
+        assertSame(alderaan, entityStore.get("http://SWAPI.dev/api/planets/2", PlanetResponse.class));
+        assertNull(entityStore.get("https://swapi.dev/api/planets/2/", Person.class));
+        assertNull(entityStore.get("https://swapi.dev/api/planets/3/", PlanetResponse.class));
+    }
+
+    @Test
+    void testGet_hitRatio() {
+        entityStore.record(PlanetResponse.builder().name("Alderaan").url("https://swapi.dev/api/planets/2/").build());
+
+        entityStore.get("https://swapi.dev/api/planets/2/", PlanetResponse.class);
+        entityStore.get("https://swapi.dev/api/planets/2/", PlanetResponse.class);
+        entityStore.get("https://swapi.dev/api/planets/2/", PlanetResponse.class);
+        entityStore.get("https://swapi.dev/api/planets/3/", PlanetResponse.class);
+
+        assertEquals(0.75, entityStore.hitRatio());
+        assertEquals(0.75, meterRegistry.get("swapi.entities.hit.ratio").gauge().value());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", "swapi.entities").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testRecord_maximumSize() {
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getEntities().setMaximumSize(10);
+        SwapiEntityStore boundedStore = new SwapiEntityStore(swapiProperties, new SimpleMeterRegistry());
+
+        for (int i = 1; i <= 100; i++) {
+            boundedStore.record(PlanetResponse.builder().name("Planet " + i).url("https://swapi.dev/api/planets/" + i + "/").build());
+        }
+
+        long stored = IntStream.rangeClosed(1, 100)
+                .filter(i -> boundedStore.peek("https://swapi.dev/api/planets/" + i + "/", PlanetResponse.class) != null)
+                .count();
+        assertTrue(stored <= 10, "stored " + stored);
+    }
+}
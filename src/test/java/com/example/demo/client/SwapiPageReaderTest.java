@@ -0,0 +1,95 @@
+package com.example.demo.client;
+
+import com.example.demo.models.SwapiPersonResponse;
+import com.example.demo.models.SwapiStarshipResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiPageReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SwapiPageReader pageReader = new SwapiPageReader(objectMapper);
+
+    private byte[] starshipPage;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        try (InputStream page = getClass().getResourceAsStream("/swapi/starships-search.json")) {
+            this.starshipPage = page.readAllBytes();
+        }
+    }
+
+    @Test
+    void testReadPage() throws IOException {
+        SwapiStarshipResponse response = pageReader.readPage(new ByteArrayInputStream(starshipPage), SwapiStarshipResponse.class, 2);
+
+        assertEquals(2, response.getResults().size());
+        assertEquals("Death Star", response.getResults().get(0).getName());
+        assertEquals("Deep Space Mobile Battlestation", response.getResults().get(0).getStarshipClass());
+        assertEquals("DS-1 Orbital Battle Station", response.getResults().get(0).getModel());
+        assertEquals("342,953", response.getResults().get(0).getCrew());
+        assertEquals("Star Destroyer", response.getResults().get(1).getName());
+    }
+
+    @Test
+    void testReadPage_stopsAtMaxResults() throws IOException {
+        SwapiStarshipResponse response = pageReader.readPage(new ByteArrayInputStream(starshipPage), SwapiStarshipResponse.class, 1);
+
+        assertEquals(1, response.getResults().size());
+        assertEquals("Death Star", response.getResults().get(0).getName());
+    }
+
+    @Test
+    void testReadPage_noResults() throws IOException {
+        byte[] body = "{\"count\":0,\"next\":null,\"previous\":null,\"results\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        SwapiPersonResponse response = pageReader.readPage(new ByteArrayInputStream(body), SwapiPersonResponse.class, 2);
+
+        assertTrue(response.getResults().isEmpty());
+    }
+
+    @Test
+    void testReadPage_notAPage() {
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> pageReader.readPage(new ByteArrayInputStream(body), SwapiPersonResponse.class, 2));
+    }
+
+    @Test
+    void testReadPage_allocatesLessThanObjectRoundTrip() throws IOException {
+        final int iterations = 2000;
+        long roundTrip = 0;
+        long streaming = 0;
+        // First pass warms both paths up, second pass is measured
+        for (int pass = 0; pass < 2; pass++) {
+            long before = allocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                Object tree = objectMapper.readValue(starshipPage, Object.class);
+                objectMapper.readValue(objectMapper.writeValueAsString(tree), SwapiStarshipResponse.class);
+            }
+            roundTrip = (allocatedBytes() - before) / iterations;
+
+            before = allocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                pageReader.readPage(new ByteArrayInputStream(starshipPage), SwapiStarshipResponse.class, 2);
+            }
+            streaming = (allocatedBytes() - before) / iterations;
+        }
+
+        assertTrue(streaming < roundTrip);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.client;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.StarshipResponse;
+import com.example.demo.models.SwapiStarshipResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwapiSearcherTest {
+
+    private static final String SEARCH_URL = "https://swapi.dev/api/starships/?search=";
+
+    private static final String STARSHIP_URL = SEARCH_URL + "Star";
+
+    @Mock
+    private SwapiClient swapiClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SwapiProperties swapiProperties = new SwapiProperties();
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void beforeEach() {
+        this.executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void testFindByName_laterPage() {
+        when(swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(5, "Star Destroyer", "Death Star"));
+        when(swapiClient.search(STARSHIP_URL + "&page=2", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(5, "Star Courier", "Star Skiff"));
+        when(swapiClient.search(STARSHIP_URL + "&page=3", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(5, "star"));
+
+        // One page at a time, so every page before the match is fetched whatever the thread timing
+        StarshipResponse starship = newSearcher(1).findByName(SEARCH_URL, "Star", SwapiStarshipResponse.class, StarshipResponse::getName);
+
+        assertEquals("star", starship.getName());
+        InOrder pages = inOrder(swapiClient);
+        pages.verify(swapiClient).search(STARSHIP_URL, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS);
+        pages.verify(swapiClient).search(STARSHIP_URL + "&page=2", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS);
+        pages.verify(swapiClient).search(STARSHIP_URL + "&page=3", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS);
+        verifyNoMoreInteractions(swapiClient);
+    }
+
+    @Test
+    void testFindByName_laterPagesInParallel() {
+        CountDownLatch laterPages = new CountDownLatch(2);
+        when(swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(5, "Star Destroyer", "Death Star"));
+        // Each later page waits for the other to be asked for, which only happens if they are fetched at the same time
+        when(swapiClient.search(STARSHIP_URL + "&page=2", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenAnswer(invocation -> awaitBoth(laterPages, page(5, "Star Courier", "Star Skiff")));
+        when(swapiClient.search(STARSHIP_URL + "&page=3", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenAnswer(invocation -> awaitBoth(laterPages, page(5, "Star Yacht")));
+
+        StarshipResponse starship = newSearcher(8).findByName(SEARCH_URL, "Star", SwapiStarshipResponse.class, StarshipResponse::getName);
+
+        assertNull(starship);
+        verify(swapiClient).search(STARSHIP_URL + "&page=2", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS);
+        verify(swapiClient).search(STARSHIP_URL + "&page=3", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS);
+    }
+
+    @Test
+    void testFindByName_stopsOnceMatched() {
+        when(swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(10, "Star Destroyer", "Death Star"));
+        when(swapiClient.search(STARSHIP_URL + "&page=2", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(10, "Star", "Star Skiff"));
+
+        StarshipResponse starship = newSearcher(1).findByName(SEARCH_URL, "Star", SwapiStarshipResponse.class, StarshipResponse::getName);
+
+        assertEquals("Star", starship.getName());
+        verify(swapiClient, never()).search(STARSHIP_URL + "&page=3", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS);
+    }
+
+    @Test
+    void testFindByName_noExactName() {
+        when(swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(3, "Star Destroyer", "Death Star"));
+        when(swapiClient.search(STARSHIP_URL + "&page=2", SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(3, "Star Skiff"));
+
+        StarshipResponse starship = newSearcher(8).findByName(SEARCH_URL, "Star", SwapiStarshipResponse.class, StarshipResponse::getName);
+
+        assertNull(starship);
+        assertEquals(1.0, meterRegistry.get("swapi.searches.unmatched").tag("route", "starships").tag("reason", "ambiguous").counter().count());
+    }
+
+    @Test
+    void testResolveAll_onlyMissingFromStore() throws Exception {
+        SwapiSearcher searcher = newSearcher(8);
+        when(swapiClient.search(STARSHIP_URL, SwapiStarshipResponse.class, SwapiSearcher.ALL_RESULTS))
+                .thenReturn(page(1, "Star"));
+        searcher.findByName(SEARCH_URL, "Star", SwapiStarshipResponse.class, StarshipResponse::getName);
+        when(swapiClient.get("https://swapi.dev/api/starships/2/", StarshipResponse.class))
+                .thenReturn(StarshipResponse.builder().name("Star Skiff").url("https://swapi.dev/api/starships/2/").build());
+        when(swapiClient.get("https://swapi.dev/api/starships/3/", StarshipResponse.class))
+                .thenReturn(StarshipResponse.builder().name("Star Courier").url("https://swapi.dev/api/starships/3/").build());
+
+        Map<String, Future<StarshipResponse>> starships = searcher.resolveAll(List.of("https://swapi.dev/api/starships/1/",
+                "https://swapi.dev/api/starships/2/", "https://swapi.dev/api/starships/3/", "https://swapi.dev/api/starships/2/"),
+                StarshipResponse.class);
+
+        assertEquals("Star", starships.get("https://swapi.dev/api/starships/1/").get().getName());
+        assertEquals("Star Skiff", starships.get("https://swapi.dev/api/starships/2/").get().getName());
+        assertEquals("Star Courier", starships.get("https://swapi.dev/api/starships/3/").get().getName());
+        verify(swapiClient, never()).get("https://swapi.dev/api/starships/1/", StarshipResponse.class);
+        verify(swapiClient, times(1)).get("https://swapi.dev/api/starships/2/", StarshipResponse.class);
+        // Fetched links are kept as well
+        assertSame(starships.get("https://swapi.dev/api/starships/3/").get(), searcher.resolve("http://swapi.dev/api/starships/3", StarshipResponse.class));
+    }
+
+    @Test
+    void testResolveAll_failedLink() throws Exception {
+        UncheckedIOException failure = new UncheckedIOException(new IOException("Error!!"));
+        when(swapiClient.get("https://swapi.dev/api/starships/2/", StarshipResponse.class)).thenThrow(failure);
+        when(swapiClient.get("https://swapi.dev/api/starships/3/", StarshipResponse.class))
+                .thenReturn(StarshipResponse.builder().name("Star Courier").url("https://swapi.dev/api/starships/3/").build());
+
+        Map<String, Future<StarshipResponse>> starships = newSearcher(1).resolveAll(List.of("https://swapi.dev/api/starships/2/",
+                "https://swapi.dev/api/starships/3/"), StarshipResponse.class);
+
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> starships.get("https://swapi.dev/api/starships/2/").get());
+        assertSame(failure, failed.getCause());
+        // The other links are still followed
+        assertEquals("Star Courier", starships.get("https://swapi.dev/api/starships/3/").get().getName());
+    }
+
+    private static SwapiStarshipResponse awaitBoth(CountDownLatch laterPages, SwapiStarshipResponse page) throws InterruptedException {
+        laterPages.countDown();
+        assertTrue(laterPages.await(5, TimeUnit.SECONDS));
+        return page;
+    }
+
+    private SwapiSearcher newSearcher(int pageParallelism) {
+        swapiProperties.getSearch().setPageParallelism(pageParallelism);
+        return new SwapiSearcher(swapiClient, executor, new SwapiMetrics(meterRegistry, swapiProperties),
+                new SwapiEntityStore(swapiProperties, meterRegistry), swapiProperties);
+    }
+
+    private static SwapiStarshipResponse page(int count, String... names) {
+        return SwapiStarshipResponse.builder()
+                .count(count)
+                .next("https://swapi.dev/api/starships/?search=Star&page=2")
+                .results(List.of(names).stream().map(name -> StarshipResponse.builder().name(name)
+                        .url("https://swapi.dev/api/starships/" + (List.of(names).indexOf(name) + 1) + "/").build()).toList())
+                .build();
+    }
+}
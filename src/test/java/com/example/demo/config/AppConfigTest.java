@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppConfigTest {
+
+    private final TimeValue keepAlive = TimeValue.ofSeconds(30);
+
+    private final ConnectionKeepAliveStrategy keepAliveStrategy = AppConfig.keepAliveStrategy(keepAlive);
+
+    @Test
+    void testGetKeepAliveDuration_beforeAdvertisedTimeout() {
+        assertEquals(TimeValue.ofSeconds(4), keepAliveStrategy.getKeepAliveDuration(response("timeout=5, max=100"), context()));
+        assertEquals(TimeValue.ofMilliseconds(500), keepAliveStrategy.getKeepAliveDuration(response("timeout=1"), context()));
+    }
+
+    @Test
+    void testGetKeepAliveDuration_cappedAtConfigured() {
+        assertEquals(keepAlive, keepAliveStrategy.getKeepAliveDuration(response("timeout=120"), context()));
+        assertEquals(keepAlive, keepAliveStrategy.getKeepAliveDuration(new BasicHttpResponse(200), context()));
+    }
+
+    private static BasicHttpResponse response(String keepAlive) {
+        BasicHttpResponse response = new BasicHttpResponse(200);
+        response.addHeader(HttpHeaders.KEEP_ALIVE, keepAlive);
+        return response;
+    }
+
+    private HttpClientContext context() {
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom().setConnectionKeepAlive(keepAlive).build());
+        return context;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.load;
+
+import com.example.demo.MainApplication;
+import com.example.demo.stub.SwapiStubServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the blocking and the reactive /information endpoints under many concurrent clients and a slow SWAPI.
+ * Every request looks up a different starship and person so no upstream call is shared or cached.
+ * Run with {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+class InformationLoadComparisonTest {
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(500);
+    private static final int CONCURRENCY = 200;
+    private static final Duration RUN_TIME = Duration.ofSeconds(10);
+
+    @Test
+    void testInformation_blockingAndReactive() throws Exception {
+        try (SwapiStubServer stub = new SwapiStubServer(UPSTREAM_LATENCY)) {
+            LoadResult blocking = run(stub, "default");
+            LoadResult reactive = run(stub, "reactive");
+            LoadReports.publish("information-comparison", String.join(System.lineSeparator(), LoadResult.HEADER,
+                    blocking.toString(), reactive.toString()));
+
+            assertEquals(0, reactive.errors());
+            assertTrue(reactive.successesPerSecond() > blocking.successesPerSecond());
+        }
+    }
+
+    private LoadResult run(SwapiStubServer stub, String profile) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApplication.class)
+                .profiles(profile)
+                .run("--server.port=0",
+                        "--swapi.api.url=" + stub.getUrl(),
+                        "--swapi.cache.enabled=false",
+                        "--swapi.http.max-connections-per-route=1000",
+                        "--swapi.http.max-connections-total=1000",
+                        "--logging.level.com.example.demo=WARN",
+                        "--logging.level.com.example.demo.load=INFO")) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/information";
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            // Warm up both the app and the client before measuring
+            drive(client, baseUrl, Duration.ofSeconds(2), new ConcurrentLinkedQueue<>(), new AtomicInteger());
+
+            ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+            AtomicInteger errors = new AtomicInteger();
+            drive(client, baseUrl, RUN_TIME, latencies, errors);
+            return LoadResult.of(profile, latencies, errors.get(), RUN_TIME);
+        }
+    }
+
+    /**
+     * Keeps CONCURRENCY requests in flight until the run time is over.
+     */
+    private void drive(HttpClient client, String baseUrl, Duration runTime, ConcurrentLinkedQueue<Long> latencies,
+                       AtomicInteger errors) {
+        long end = System.nanoTime() + runTime.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        CompletableFuture<?>[] users = new CompletableFuture<?>[CONCURRENCY];
+        for (int i = 0; i < CONCURRENCY; i++) {
+            users[i] = next(client, baseUrl, end, sequence, latencies, errors);
+        }
+        CompletableFuture.allOf(users).orTimeout(runTime.toSeconds() + 30, TimeUnit.SECONDS).join();
+    }
+
+    private CompletableFuture<Void> next(HttpClient client, String baseUrl, long end, AtomicLong sequence,
+                                         ConcurrentLinkedQueue<Long> latencies, AtomicInteger errors) {
+        if (System.nanoTime() >= end) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long id = sequence.incrementAndGet();
+        URI uri = URI.create(baseUrl + "?starship=" + URLEncoder.encode("Death Star " + id, StandardCharsets.UTF_8)
+                + "&person=" + URLEncoder.encode("Leia Organa " + id, StandardCharsets.UTF_8));
+        long start = System.nanoTime();
+        return client.sendAsync(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding())
+                .handle((response, e) -> {
+                    latencies.add(System.nanoTime() - start);
+                    if (e != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> next(client, baseUrl, end, sequence, latencies, errors));
+    }
+
+    private record LoadResult(String profile, int requests, int errors, double successesPerSecond, double p50Millis, double p99Millis) {
+        static final String HEADER = String.format("%-10s %10s %8s %10s %10s %10s", "profile", "requests", "errors", "ok/s", "p50 ms", "p99 ms");
+
+        static LoadResult of(String profile, ConcurrentLinkedQueue<Long> latencies, int errors, Duration runTime) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new LoadResult(profile, sorted.length, errors, (sorted.length - errors) / (double) runTime.toSeconds(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %10d %8d %10.1f %10.1f %10.1f", profile, requests, errors, successesPerSecond, p50Millis, p99Millis);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.load;
+
+import com.example.demo.MainApplication;
+import com.example.demo.stub.LatencyDistribution;
+import com.example.demo.stub.SwapiStubServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Release gate: drives GET /information at a fixed rate against the application backed by the SWAPI stub,
+ * and fails if the corrected p99 latency or the error rate is over its limit.
+ * Every request looks up a different starship and person, so all of them reach the stub.
+ * <p>
+ * Tuned with system properties passed to {@code ./gradlew loadTest}:
+ * {@code load.profile}, {@code load.rate}, {@code load.warmup}, {@code load.duration},
+ * {@code load.max-p99}, {@code load.max-error-rate}, {@code stub.latency} (see {@link LatencyDistribution#parse}),
+ * {@code stub.error-rate} and {@code stub.padding-bytes}. The report is written to {@code load.report-dir}.
+ */
+@Tag("load")
+class InformationLoadTest {
+
+    @Test
+    void testInformation_fixedRate() {
+        LatencyDistribution stubLatency = LatencyDistribution.parse(System.getProperty("stub.latency", "lognormal:50ms..250ms"));
+        double stubErrorRate = Double.parseDouble(System.getProperty("stub.error-rate", "0"));
+        int stubPaddingBytes = Integer.parseInt(System.getProperty("stub.padding-bytes", "0"));
+        String profile = System.getProperty("load.profile", "default");
+        double rate = Double.parseDouble(System.getProperty("load.rate", "50"));
+        Duration warmup = duration("load.warmup", "5s");
+        Duration runTime = duration("load.duration", "20s");
+        Duration maxP99 = duration("load.max-p99", "2s");
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+        try (SwapiStubServer stub = new SwapiStubServer(stubLatency, stubErrorRate, stubPaddingBytes);
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApplication.class)
+                     .profiles(profile)
+                     .run("--server.port=0", "--swapi.api.url=" + stub.getUrl(), "--logging.level.com.example.demo=WARN",
+                             "--logging.level.com.example.demo.load=INFO")) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/information";
+            LoadDriver driver = new LoadDriver(Duration.ofSeconds(30));
+            driver.run(n -> uri(baseUrl, "warmup-" + n), rate, warmup);
+            LoadReport report = driver.run(n -> uri(baseUrl, String.valueOf(n)), rate, runTime);
+            LoadReports.publish("information-" + profile, "Profile " + profile + ": " + report);
+
+            assertTrue(report.latencyMillis(99) <= maxP99.toMillis(), "p99 latency over " + maxP99);
+            assertTrue(report.errorRate() <= maxErrorRate, "error rate over " + maxErrorRate);
+        }
+    }
+
+    private static URI uri(String baseUrl, String suffix) {
+        return URI.create(baseUrl + "?starship=" + URLEncoder.encode("Death Star " + suffix, StandardCharsets.UTF_8)
+                + "&person=" + URLEncoder.encode("Leia Organa " + suffix, StandardCharsets.UTF_8));
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-model load driver sending requests at a fixed arrival rate, whatever the latency of the responses.
+ * Latency is measured from the time each request was due to be sent rather than from when it actually was,
+ * so stalls of the driver or the client are counted against the service instead of hiding it (coordinated omission).
+ */
+public class LoadDriver {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Duration requestTimeout;
+
+    public LoadDriver(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Sends GET requests at the given rate for the given time, then waits for the outstanding responses.
+     *
+     * @param requests       the URI of the n-th request
+     * @param ratePerSecond  the number of requests sent per second
+     * @param duration       how long requests are sent for
+     * @return the latencies, throughput and errors of the run
+     */
+    public LoadReport run(LongFunction<URI> requests, double ratePerSecond, Duration duration) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long count = duration.toNanos() / interval;
+        Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        AtomicLong errors = new AtomicLong();
+        List<CompletableFuture<?>> responses = new ArrayList<>((int) count);
+        long start = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            long intended = start + i * interval;
+            for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(requests.apply(i)).timeout(requestTimeout).build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, e) -> {
+                        long end = System.nanoTime();
+                        latency.recordValue(end - intended);
+                        serviceTime.recordValue(end - sent);
+                        if (e != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return new LoadReport(ratePerSecond, count, errors.get(), elapsed, latency, serviceTime);
+    }
+}
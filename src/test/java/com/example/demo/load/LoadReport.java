@@ -0,0 +1,51 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a {@link LoadDriver} run.
+ *
+ * @param targetRate  the requests per second the driver was asked to send
+ * @param requests    the number of requests sent
+ * @param errors      the requests that failed or did not get a 200
+ * @param elapsed     the time from the first request until the last response
+ * @param latency     latencies from when each request was due, corrected for coordinated omission
+ * @param serviceTime latencies from when each request was actually sent
+ */
+public record LoadReport(double targetRate, long requests, long errors, Duration elapsed, Histogram latency, Histogram serviceTime) {
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    public double throughput() {
+        return (requests - errors) / (elapsed.toNanos() / 1e9);
+    }
+
+    public double errorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the corrected latency at the percentile, in milliseconds
+     */
+    public double latencyMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rate %.0f/s, %d requests, %d errors (%.2f%%), %.1f ok/s%n", targetRate, requests, errors, errorRate() * 100, throughput())
+                + String.format("%-13s %9s %9s %9s %9s%n", "ms", "p50", "p99", "p99.9", "max")
+                + row("latency", latency)
+                + row("service time", serviceTime);
+    }
+
+    private static String row(String name, Histogram histogram) {
+        return String.format("%-13s %9.1f %9.1f %9.1f %9.1f%n", name,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+}
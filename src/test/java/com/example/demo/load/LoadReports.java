@@ -0,0 +1,38 @@
+package com.example.demo.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Publishes the outcome of a load run: logged, and written to {@code load.report-dir}, build/reports/load by default,
+ * where it is kept with the other build reports.
+ */
+final class LoadReports {
+    private static final Logger log = LoggerFactory.getLogger(LoadReports.class);
+
+    private LoadReports() {
+    }
+
+    /**
+     * @param name   the name of the report file, without extension
+     * @param report the report
+     * @return the file the report was written to
+     */
+    static Path publish(String name, String report) {
+        Path file = Path.of(System.getProperty("load.report-dir", "build/reports/load")).resolve(name + ".txt");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, report, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Load report {} written to {}:{}{}", name, file.toAbsolutePath(), System.lineSeparator(), report);
+        return file;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.mirror;
+
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SwapiMirrorTest {
+
+    private static final String SWAPI_URL = "https://swapi.dev/api";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SwapiMirror swapiMirror;
+
+    @BeforeEach
+    void beforeEach() {
+        this.swapiMirror = new SwapiMirror(this.restTemplate, this.objectMapper, new SwapiProperties(), SWAPI_URL, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testIngest_followsNextPages() throws IOException {
+        Map<String, String> pages = Map.of(
+                SWAPI_URL + "/starships/", "{\"next\":\"https://swapi.dev/api/starships/?page=2\",\"results\":[{\"name\":\"Death Star\",\"url\":\"https://swapi.dev/api/starships/9/\"}]}",
+                SWAPI_URL + "/starships/?page=2", "{\"next\":null,\"results\":[{\"name\":\"Star Destroyer\",\"url\":\"https://swapi.dev/api/starships/3/\"}]}",
+                SWAPI_URL + "/people/", "{\"next\":null,\"results\":[{\"name\":\"Leia Organa\",\"homeworld\":\"https://swapi.dev/api/planets/2/\",\"url\":\"https://swapi.dev/api/people/5/\"}]}",
+                SWAPI_URL + "/planets/", "{\"next\":null,\"results\":[{\"name\":\"Alderaan\",\"url\":\"https://swapi.dev/api/planets/2/\"}]}");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3).extractData(new MockClientHttpResponse(
+                        pages.get(invocation.<String>getArgument(0)).getBytes(StandardCharsets.UTF_8), HttpStatus.OK)));
+
+        SwapiMirrorData data = swapiMirror.ingest();
+
+        assertEquals(List.of("Death Star", "Star Destroyer"), data.getStarships().stream().map(StarshipResponse::getName).toList());
+        assertEquals("Leia Organa", data.getPeople().get(0).getName());
+        assertEquals("Alderaan", data.getPlanets().get(0).getName());
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        Path file = tempDir.resolve("swapi-mirror.json.gz");
+        SwapiMirrorData data = mirrorData();
+
+        swapiMirror.write(data, file);
+
+        assertEquals(data, swapiMirror.read(file));
+    }
+
+    @Test
+    void testSearch() {
+        swapiMirror.load(mirrorData());
+
+        SwapiStarshipResponse starships = swapiMirror.search(SWAPI_URL + "/starships/?search=death%20star", SwapiStarshipResponse.class, 2);
+        assertEquals(List.of("Death Star", "Death Star II"), starships.getResults().stream().map(StarshipResponse::getName).toList());
+        SwapiStarshipResponse byModel = swapiMirror.search(SWAPI_URL + "/starships/?search=DS-1", SwapiStarshipResponse.class, 2);
+        assertEquals("Death Star", byModel.getResults().get(0).getName());
+        SwapiPersonResponse people = swapiMirror.search(SWAPI_URL + "/people/?search=Leia%20Organa", SwapiPersonResponse.class, 2);
+        assertEquals("https://swapi.dev/api/planets/2/", people.getResults().get(0).getHomeworld());
+        SwapiPlanetResponse planets = swapiMirror.search(SWAPI_URL + "/planets/?search=Alderaan", SwapiPlanetResponse.class, 2);
+        assertEquals("https://swapi.dev/api/planets/2/", planets.getResults().get(0).getUrl());
+    }
+
+    @Test
+    void testSearch_termDecodedOnce() {
+        swapiMirror.load(SwapiMirrorData.builder()
+                .starships(List.of(StarshipResponse.builder().name("X-wing+ 100%").url("https://swapi.dev/api/starships/12/").build()))
+                .people(List.of())
+                .planets(List.of())
+                .build());
+
+        SwapiStarshipResponse starships = swapiMirror.search(SWAPI_URL + "/starships/?search=X-wing+%20100%25", SwapiStarshipResponse.class, 2);
+        assertEquals("X-wing+ 100%", starships.getResults().get(0).getName());
+        assertNull(swapiMirror.search(SWAPI_URL + "/starships/?search=X-wing%20%20100%25", SwapiStarshipResponse.class, 2));
+    }
+
+    @Test
+    void testSearch_miss() {
+        swapiMirror.load(mirrorData());
+
+        assertNull(swapiMirror.search(SWAPI_URL + "/planets/?search=Hoth", SwapiPlanetResponse.class, 2));
+        assertNull(swapiMirror.search(SWAPI_URL + "/planets/?search=Alderaan", SwapiPersonResponse.class, 2));
+        assertNull(swapiMirror.search(SWAPI_URL + "/vehicles/?search=Alderaan", SwapiPlanetResponse.class, 2));
+        assertNull(swapiMirror.search("https://elsewhere.dev/api/planets/?search=Alderaan", SwapiPlanetResponse.class, 2));
+    }
+
+    @Test
+    void testFindByUrl() {
+        swapiMirror.load(mirrorData());
+
+        assertEquals("Alderaan", swapiMirror.findByUrl("https://swapi.dev/api/planets/2/", PlanetResponse.class).getName());
+        assertNull(swapiMirror.findByUrl("https://swapi.dev/api/planets/3/", PlanetResponse.class));
+        assertNull(swapiMirror.findByUrl("https://swapi.dev/api/planets/2/", Person.class));
+    }
+
+    @Test
+    void testFindByUrl_anyUrlForm() {
+        swapiMirror.load(mirrorData());
+
+        assertEquals("Alderaan", swapiMirror.findByUrl("http://swapi.dev/api/planets/2", PlanetResponse.class).getName());
+        assertEquals("Alderaan", swapiMirror.findByUrl(" https://SWAPI.dev/api/planets/2 ", PlanetResponse.class).getName());
+    }
+
+    @Test
+    void testInit_failedIngestLoadsMirrorFile() throws IOException {
+        Path file = tempDir.resolve("swapi-mirror.json.gz");
+        swapiMirror.write(mirrorData(), file);
+        SwapiProperties swapiProperties = new SwapiProperties();
+        swapiProperties.getMirror().setEnabled(true);
+        swapiProperties.getMirror().setIngest(true);
+        swapiProperties.getMirror().setFile(file);
+        SwapiMirror ingestingMirror = new SwapiMirror(this.restTemplate, this.objectMapper, swapiProperties, SWAPI_URL, new SimpleMeterRegistry());
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(new ResourceAccessException("SWAPI is down"));
+
+        ingestingMirror.init();
+
+        assertEquals(mirrorData(), ingestingMirror.read(file));
+        assertEquals("Alderaan", ingestingMirror.findByUrl("https://swapi.dev/api/planets/2/", PlanetResponse.class).getName());
+    }
+
+    private static SwapiMirrorData mirrorData() {
+        return SwapiMirrorData.builder()
+                .ingestedAt(1L)
+                .starships(List.of(
+                        StarshipResponse.builder().name("Death Star").model("DS-1 Orbital Battle Station").crew("342,953").url("https://swapi.dev/api/starships/9/").build(),
+                        StarshipResponse.builder().name("Death Star II").model("DS-2 Orbital Battle Station").url("https://swapi.dev/api/starships/99/").build()))
+                .people(List.of(Person.builder().name("Leia Organa").homeworld("https://swapi.dev/api/planets/2/").url("https://swapi.dev/api/people/5/").build()))
+                .planets(List.of(PlanetResponse.builder().name("Alderaan").url("https://swapi.dev/api/planets/2/").build()))
+                .build();
+    }
+}
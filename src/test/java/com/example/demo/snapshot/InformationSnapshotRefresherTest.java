@@ -0,0 +1,68 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.StarshipController;
+import com.example.demo.config.SwapiProperties;
+import com.example.demo.models.Response;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InformationSnapshotRefresherTest {
+
+    @Mock
+    private StarshipController starshipController;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private InformationSnapshotStore snapshotStore;
+
+    private InformationSnapshotRefresher refresher;
+
+    @BeforeEach
+    void beforeEach() {
+        this.snapshotStore = new InformationSnapshotStore(new ObjectMapper(), meterRegistry);
+        this.refresher = new InformationSnapshotRefresher(starshipController, snapshotStore, taskScheduler,
+                new SwapiProperties(), meterRegistry);
+    }
+
+    @Test
+    void testRefresh() {
+        when(starshipController.lookupInBackground())
+                .thenReturn(ResponseEntity.ok(Response.builder().crew("2").isLeiaOnPlanet("true").build()));
+
+        refresher.refresh();
+
+        assertNotNull(snapshotStore.current());
+        assertEquals("{\"starship\":{},\"crew\":\"2\",\"isLeiaOnPlanet\":\"true\"}", new String(snapshotStore.current().body()));
+        assertTrue(meterRegistry.get("information.snapshot.age").gauge().value() >= 0);
+    }
+
+    @Test
+    void testRefresh_failureKeepsLastSnapshot() {
+        when(starshipController.lookupInBackground())
+                .thenReturn(ResponseEntity.ok(Response.builder().crew("2").build()))
+                .thenReturn(ResponseEntity.internalServerError().body(Response.builder().build()))
+                .thenThrow(new IllegalStateException("Error!!"));
+
+        refresher.refresh();
+        InformationSnapshot snapshot = snapshotStore.current();
+        refresher.refresh();
+        refresher.refresh();
+
+        assertSame(snapshot, snapshotStore.current());
+        assertEquals(2.0, meterRegistry.get("information.snapshot.refresh.failures").counter().count());
+    }
+}
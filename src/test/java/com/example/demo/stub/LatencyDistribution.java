@@ -0,0 +1,64 @@
+package com.example.demo.stub;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution the {@link SwapiStubServer} draws the latency of each response from.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+    /**
+     * z-score of the 99th percentile of the standard normal distribution
+     */
+    double P99_Z = 2.326;
+
+    Duration next();
+
+    static LatencyDistribution fixed(Duration latency) {
+        return () -> latency;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        return () -> Duration.ofNanos(ThreadLocalRandom.current().nextLong(min.toNanos(), max.toNanos() + 1));
+    }
+
+    /**
+     * Long-tailed latencies, like those of a real upstream.
+     *
+     * @param median the median latency
+     * @param p99    the 99th percentile latency
+     */
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        double mu = Math.log(median.toNanos());
+        double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / P99_Z;
+        return () -> Duration.ofNanos((long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Parses a distribution given as {@code 100ms} (fixed), {@code uniform:50ms..500ms}
+     * or {@code lognormal:100ms..1s} (median and 99th percentile).
+     *
+     * @param spec the distribution
+     * @return the distribution
+     */
+    static LatencyDistribution parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            return fixed(DurationStyle.detectAndParse(spec));
+        }
+        String[] bounds = spec.substring(colon + 1).split("\\.\\.");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Expected two durations separated by '..' in " + spec);
+        }
+        Duration low = DurationStyle.detectAndParse(bounds[0]);
+        Duration high = DurationStyle.detectAndParse(bounds[1]);
+        return switch (spec.substring(0, colon)) {
+            case "uniform" -> uniform(low, high);
+            case "lognormal" -> logNormal(low, high);
+            default -> throw new IllegalArgumentException("Unknown latency distribution " + spec);
+        };
+    }
+}
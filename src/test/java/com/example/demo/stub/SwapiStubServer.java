@@ -0,0 +1,99 @@
+package com.example.demo.stub;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process stand-in for the SWAPI starship and people searches built by {@link com.example.demo.config.SwapiConfig},
+ * answering every search with a single match named as searched, so every lookup finds its exact name,
+ * and for the planet those people link to.
+ * The latency of each response is drawn from a {@link LatencyDistribution}, a share of the searches fail with a 500,
+ * and the results can be padded with an ignored field to make the payloads bigger.
+ * The stub is non-blocking, so it holds no thread per pending request and does not limit the load it is put under.
+ */
+public class SwapiStubServer implements AutoCloseable {
+    private static final String STARSHIPS = "{\"count\":1,\"next\":null,\"results\":[{\"name\":%s," +
+            "\"model\":\"DS-1 Orbital Battle Station\",\"starship_class\":\"Deep Space Mobile Battlestation\",\"crew\":\"342,953\"%s}]}";
+    private static final String PEOPLE = "{\"count\":1,\"next\":null,\"results\":[{\"name\":%s,\"homeworld\":\"%s/planets/2/\"%s}]}";
+    private static final String PLANETS = "{\"count\":1,\"next\":null,\"results\":[{\"name\":%s,\"url\":\"%s/planets/2/\"%s}]}";
+    private static final String PLANET = "{\"name\":\"Alderaan\",\"url\":\"%s/planets/2/\"%s}";
+    private static final byte[] ERROR = "{\"detail\":\"Stub error\"}".getBytes(StandardCharsets.UTF_8);
+
+    // Own event loops, so the stub outlives the shared ones disposed with each application context
+    private final LoopResources loops = LoopResources.create("swapi-stub");
+    private final DisposableServer server;
+    private final String padding;
+    private final byte[] planet;
+
+    public SwapiStubServer(Duration latency) {
+        this(LatencyDistribution.fixed(latency), 0, 0);
+    }
+
+    /**
+     * @param latency      the distribution of the response latencies
+     * @param errorRate    the share of searches, between 0 and 1, answered with a 500
+     * @param paddingBytes the size of the ignored field added to every result
+     */
+    public SwapiStubServer(LatencyDistribution latency, double errorRate, int paddingBytes) {
+        this.server = HttpServer.create()
+                .runOn(loops)
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> {
+                    byte[] body = body(request.uri());
+                    if (body == null) {
+                        return response.status(HttpResponseStatus.NOT_FOUND).send();
+                    }
+                    if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                        response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                        body = ERROR;
+                    }
+                    return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                            .sendByteArray(Mono.just(body).delayElement(latency.next()));
+                })
+                .bindNow();
+        this.padding = paddingBytes > 0 ? ",\"padding\":\"" + "x".repeat(paddingBytes) + "\"" : "";
+        this.planet = String.format(PLANET, getUrl(), padding).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the base URL to use as {@code swapi.api.url}
+     */
+    public String getUrl() {
+        return "http://localhost:" + server.port() + "/api";
+    }
+
+    private byte[] body(String uri) {
+        UriComponents request = UriComponentsBuilder.fromUriString(uri).build();
+        String search = request.getQueryParams().getFirst("search");
+        if (search == null) {
+            return "/api/planets/2/".equals(request.getPath()) ? planet : null;
+        }
+        String name = "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(UriUtils.decode(search, StandardCharsets.UTF_8))) + "\"";
+        String body = switch (String.valueOf(request.getPath())) {
+            case "/api/starships/" -> String.format(STARSHIPS, name, padding);
+            case "/api/people/" -> String.format(PEOPLE, name, getUrl(), padding);
+            case "/api/planets/" -> String.format(PLANETS, name, getUrl(), padding);
+            default -> null;
+        };
+        return body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+        loops.dispose();
+    }
+}